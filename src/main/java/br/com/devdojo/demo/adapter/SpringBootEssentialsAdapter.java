@@ -1,8 +1,14 @@
 package br.com.devdojo.demo.adapter;
 
+import br.com.devdojo.demo.config.TimedJackson2SmileHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
@@ -11,10 +17,24 @@ import java.util.List;
 @Configuration
 public class SpringBootEssentialsAdapter extends WebMvcConfigurerAdapter {
 
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
         PageableHandlerMethodArgumentResolver phmar = new PageableHandlerMethodArgumentResolver();
         phmar.setFallbackPageable(new PageRequest(0, 5));
         argumentResolvers.add(phmar);
     }
+
+    /*
+     * Smile goes after the JSON converter so it is only chosen when asked for with Accept or Content-Type;
+     * its ObjectMapper gets the same settings as the JSON one, so the documents have the same shape.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        objectMapperBuilder.configure(smileMapper);
+        converters.add(new TimedJackson2SmileHttpMessageConverter(smileMapper));
+    }
 }
@@ -0,0 +1,57 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.model.Student;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.store.MemoryStoreEvictionPolicy;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Sizes the in-process regions behind the Hibernate second-level and query caches. Hibernate's
+ * SingletonEhCacheRegionFactory picks up this CacheManager because it is created before the
+ * EntityManagerFactory; another local provider only needs a different region.factory_class.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Value("${student.cache.max-entries:10000}")
+    private int studentMaxEntries;
+
+    @Value("${student.cache.ttl-seconds:300}")
+    private long studentTtlSeconds;
+
+    @Value("${student.query-cache.max-entries:1000}")
+    private int queryMaxEntries;
+
+    @Value("${student.query-cache.ttl-seconds:60}")
+    private long queryTtlSeconds;
+
+    // SingletonEhCacheRegionFactory shuts the singleton down when the last SessionFactory closes
+    @Bean(destroyMethod = "")
+    public CacheManager ehCacheManager() {
+        net.sf.ehcache.config.Configuration configuration = new net.sf.ehcache.config.Configuration()
+                .defaultCache(region("default", studentMaxEntries, studentTtlSeconds))
+                .cache(region(Student.CACHE_REGION, studentMaxEntries, studentTtlSeconds))
+                .cache(region(StandardQueryCache.class.getName(), queryMaxEntries, queryTtlSeconds))
+                // Must outlive every cached query, otherwise stale query results could be served
+                .cache(new CacheConfiguration(UpdateTimestampsCache.class.getName(), 0).eternal(true));
+        return CacheManager.create(configuration);
+    }
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnEhCacheManager() {
+        return new EntityManagerFactoryDependsOnPostProcessor("ehCacheManager");
+    }
+
+    private static CacheConfiguration region(String name, int maxEntries, long ttlSeconds) {
+        return new CacheConfiguration(name, maxEntries)
+                .timeToLiveSeconds(ttlSeconds)
+                .memoryStoreEvictionPolicy(MemoryStoreEvictionPolicy.LRU);
+    }
+
+}
@@ -0,0 +1,53 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "compression.enabled", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Value("${compression.min-size:1024}")
+    private int minSize;
+
+    @Value("${compression.mime-types:application/json,application/*+json,application/x-jackson-smile,application/x-ndjson,text/csv}")
+    private String mimeTypes;
+
+    @Value("${compression.level:6}")
+    private int level;
+
+    @Value("${compression.deflate:true}")
+    private boolean deflate;
+
+    // Largest decompressed body, in bytes, of a compressed request; 10MB by default
+    @Value("${compression.max-request-size:10485760}")
+    private long maxRequestSize;
+
+    // Paths exempt from max-request-size because their handlers stream the body, such as the bulk import
+    @Value("${compression.streaming-paths:/v1/admin/students/import}")
+    private String[] streamingPaths;
+
+    /*
+     * Runs right after RequestMetricsFilter, so the request timings include compression, and ahead of
+     * the security filters, so their error responses are covered too.
+     */
+    @Bean
+    public FilterRegistrationBean compressionFilter() {
+        List<MediaType> types = MediaType.parseMediaTypes(mimeTypes);
+        FilterRegistrationBean registration = new FilterRegistrationBean(new CompressionFilter(minSize, types, level, deflate, maxRequestSize,
+                new HashSet<>(Arrays.asList(streamingPaths))));
+        registration.addUrlPatterns("/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+}
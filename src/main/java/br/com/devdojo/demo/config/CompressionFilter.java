@@ -0,0 +1,508 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/*
+ * gzip (or deflate) response compression for clients that send Accept-Encoding, and decompression of gzip or
+ * deflate request bodies sent to the admin endpoints.
+ *
+ * The first minSize bytes of a response are held back: smaller responses go out as they are, with their
+ * Content-Length, because compressing them costs more CPU than it saves on the wire. Only the allowed media
+ * types are compressed, and never a response that already has a Content-Encoding. Compressed output is flushed
+ * with SYNC_FLUSH, so streamed responses still reach the client as they are written.
+ *
+ * Unlike Tomcat's server.compression, the level is configurable and the threshold also applies to responses
+ * without a Content-Length.
+ *
+ * A strong ETag names exact bytes, so it is weakened (W/"...") on a compressed body, and on a 304 sent to a client
+ * that accepts compression, which must repeat the tag of the 200 it revalidates. If-None-Match already compares
+ * weakly, and EntityTags.versionsOf accepts the weakened version tags in If-Match.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+    private static final String ADMIN_PATH = "/v1/admin/";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int minSize;
+    private final List<MediaType> mimeTypes;
+    private final int level;
+    private final boolean deflate;
+    private final long maxRequestSize;
+    private final Set<String> streamingPaths;
+
+    /*
+     * Decompressed request bodies are capped at maxRequestSize bytes, except on streamingPaths, whose handlers
+     * read the body incrementally and bound it themselves, as they do an uncompressed one.
+     */
+    public CompressionFilter(int minSize, List<MediaType> mimeTypes, int level, boolean deflate, long maxRequestSize,
+                             Set<String> streamingPaths) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("compression.level must be between 1 and 9");
+        this.minSize = minSize;
+        this.mimeTypes = mimeTypes;
+        this.level = level;
+        this.deflate = deflate;
+        this.maxRequestSize = maxRequestSize;
+        this.streamingPaths = streamingPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (StringUtils.hasText(contentEncoding) && !"identity".equalsIgnoreCase(contentEncoding.trim())) {
+            String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+            if (!request.getRequestURI().startsWith(request.getContextPath() + ADMIN_PATH) || !(GZIP.equals(encoding) || DEFLATE.equals(encoding))) {
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Unsupported Content-Encoding " + contentEncoding);
+                return;
+            }
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            request = new DecompressingRequest(request, encoding, streamingPaths.contains(path) ? Long.MAX_VALUE : maxRequestSize);
+        }
+
+        String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponse compressingResponse = new CompressingResponse(response, encoding);
+        chain.doFilter(request, compressingResponse);
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new FinishListener(compressingResponse));
+        } else {
+            compressingResponse.finish();
+        }
+    }
+
+    /*
+     * gzip when accepted, deflate only when enabled and gzip is not accepted.
+     */
+    String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        boolean gzip = false;
+        boolean deflateAccepted = false;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (isRefused(parts)) continue;
+            if (coding.equals(GZIP) || coding.equals("x-gzip") || coding.equals("*")) gzip = true;
+            if (coding.equals(DEFLATE)) deflateAccepted = true;
+        }
+        if (gzip) return GZIP;
+        return deflate && deflateAccepted ? DEFLATE : null;
+    }
+
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (!parameter.startsWith("q=")) continue;
+            try {
+                return Double.parseDouble(parameter.substring(2)) <= 0;
+            } catch (NumberFormatException e) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) return false;
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (MediaType allowed : mimeTypes) {
+            if (allowed.includes(mediaType)) return true;
+        }
+        return false;
+    }
+
+    private static final class FinishListener implements AsyncListener {
+        private final CompressingResponse response;
+
+        private FinishListener(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            response.finish();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+        private final String encoding;
+        private final ByteArrayOutputStream pending;
+        private OutputStream target;
+        private Deflater deflater;
+        private long contentLength = -1;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean finished;
+
+        private CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+            this.pending = new ByteArrayOutputStream(Math.max(minSize, 32));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) throw new IllegalStateException("getWriter() has already been called");
+            if (outputStream == null) outputStream = new CompressingOutputStream();
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws UnsupportedEncodingException {
+            if (writer == null) {
+                if (outputStream != null) throw new IllegalStateException("getOutputStream() has already been called");
+                outputStream = new CompressingOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (target == null) contentLength = len;
+            else if (!isCompressing()) super.setContentLengthLong(len);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setContentLengthLong(Long.parseLong(value));
+            else super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setContentLengthLong(Long.parseLong(value));
+            else super.addHeader(name, value);
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setContentLengthLong(value);
+            else super.setIntHeader(name, value);
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) setContentLengthLong(value);
+            else super.addIntHeader(name, value);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) writer.flush();
+            if (target != null) {
+                target.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (target == null) pending.reset();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (target == null) {
+                pending.reset();
+                contentLength = -1;
+            }
+        }
+
+        private boolean isCompressing() {
+            return target instanceof DeflaterOutputStream;
+        }
+
+        private void write(byte[] bytes, int offset, int length) throws IOException {
+            if (target == null) {
+                if (pending.size() + length < minSize) {
+                    pending.write(bytes, offset, length);
+                    return;
+                }
+                start(true);
+            }
+            target.write(bytes, offset, length);
+        }
+
+        /*
+         * Decides, once, whether the body is compressed, then releases the held back bytes.
+         */
+        private void start(boolean large) throws IOException {
+            boolean compressible = isCompressible(getContentType());
+            if (compressible) super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            int status = getStatus();
+            if (large && compressible && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                    && status != SC_NO_CONTENT && status != SC_NOT_MODIFIED && !isCommitted()) {
+                super.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+                weakenETag();
+                if (GZIP.equals(encoding)) {
+                    LeveledGzipOutputStream gzip = new LeveledGzipOutputStream(super.getOutputStream(), level);
+                    deflater = gzip.deflater();
+                    target = gzip;
+                } else {
+                    deflater = new Deflater(level);
+                    target = new DeflaterOutputStream(super.getOutputStream(), deflater, BUFFER_SIZE, true);
+                }
+            } else {
+                if (contentLength >= 0) super.setContentLengthLong(contentLength);
+                else if (!large && !isCommitted()) super.setContentLengthLong(pending.size());
+                target = super.getOutputStream();
+            }
+            pending.writeTo(target);
+            pending.reset();
+        }
+
+        private void weakenETag() {
+            String etag = getHeader(HttpHeaders.ETAG);
+            if (etag != null && etag.startsWith("\"")) super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+
+        private void finish() throws IOException {
+            if (finished) return;
+            finished = true;
+            if (getStatus() == SC_NOT_MODIFIED && !isCommitted()) weakenETag();
+            if (writer != null) writer.flush();
+            if (target == null) {
+                if (pending.size() == 0 && outputStream == null) return;
+                start(false);
+            }
+            if (isCompressing()) {
+                DeflaterOutputStream compressed = (DeflaterOutputStream) target;
+                compressed.finish();
+                compressed.flush();
+                deflater.end();
+            }
+        }
+
+        private final class CompressingOutputStream extends ServletOutputStream {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                CompressingResponse.this.write(bytes, offset, length);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // an undecided response keeps holding back its first bytes
+                if (target != null) target.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                if (target != null) target.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                throw new UnsupportedOperationException("Non-blocking writes are not supported when compressing");
+            }
+        }
+    }
+
+    /*
+     * GZIPOutputStream always deflates at the default level.
+     */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE, true);
+            def.setLevel(level);
+        }
+
+        private Deflater deflater() {
+            return def;
+        }
+    }
+
+    /*
+     * Hides the Content-Encoding and Content-Length of the compressed body from the handlers. A body that
+     * inflates past maxSize fails the read, so a small compressed upload cannot expand without bound.
+     */
+    private static final class DecompressingRequest extends HttpServletRequestWrapper {
+        private final String encoding;
+        private final long maxSize;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        private DecompressingRequest(HttpServletRequest request, String encoding, long maxSize) {
+            super(request);
+            this.encoding = encoding;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) throw new IllegalStateException("getReader() has already been called");
+            if (inputStream == null) inputStream = new DecompressingInputStream(super.getInputStream());
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                if (inputStream != null) throw new IllegalStateException("getInputStream() has already been called");
+                String characterEncoding = getCharacterEncoding();
+                inputStream = new DecompressingInputStream(super.getInputStream());
+                reader = new BufferedReader(new InputStreamReader(inputStream, characterEncoding != null ? characterEncoding : "ISO-8859-1"));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.<String>emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>();
+            for (String name : Collections.list(super.getHeaderNames())) {
+                if (!isHidden(name)) names.add(name);
+            }
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isHidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+
+        private final class DecompressingInputStream extends ServletInputStream {
+            private final ServletInputStream compressed;
+            private final InputStream inflated;
+            private long read;
+
+            private DecompressingInputStream(ServletInputStream compressed) throws IOException {
+                this.compressed = compressed;
+                this.inflated = GZIP.equals(encoding) ? new GZIPInputStream(compressed, BUFFER_SIZE) : new InflaterInputStream(compressed);
+            }
+
+            @Override
+            public int read() throws IOException {
+                int b = inflated.read();
+                if (b >= 0) count(1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int n = inflated.read(bytes, offset, length);
+                if (n > 0) count(n);
+                return n;
+            }
+
+            private void count(int n) throws IOException {
+                read += n;
+                if (read > maxSize) throw new IOException("Decompressed request body is larger than " + maxSize + " bytes");
+            }
+
+            @Override
+            public void close() throws IOException {
+                inflated.close();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return compressed.isFinished();
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("Non-blocking reads are not supported for compressed bodies");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package br.com.devdojo.demo.config;
+
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Only active when datasource.replica.urls lists at least one replica; otherwise Spring Boot's single
+ * spring.datasource pool is used as before. Replica pools copy the primary's driver and pool settings.
+ *
+ * The pools are built inside the dataSource bean rather than exposed as beans of their own: Spring Boot
+ * initializes the DataSource as soon as any DataSource bean exists, which would ask for this one while it is
+ * still being created. MetricsEndpoint reaches the routing data source by unwrapping the proxy.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.urls")
+public class DataSourceRoutingConfig {
+
+    @Value("${datasource.replica.urls}")
+    private String[] replicaUrls;
+
+    @Value("${datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.replica.retry-ms:5000}")
+    private long retryMillis;
+
+    @Value("${datasource.read-your-writes-ms:2000}")
+    private long readYourWritesMillis;
+
+    private org.apache.tomcat.jdbc.pool.DataSource primary;
+    private final Map<String, org.apache.tomcat.jdbc.pool.DataSource> replicas = new LinkedHashMap<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.tomcat")
+    public PoolProperties primaryPoolProperties() {
+        return new PoolProperties();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, PoolProperties primaryPoolProperties) {
+        primaryPoolProperties.setDriverClassName(properties.determineDriverClassName());
+        primaryPoolProperties.setUrl(properties.determineUrl());
+        primaryPoolProperties.setUsername(properties.determineUsername());
+        primaryPoolProperties.setPassword(properties.determinePassword());
+        primary = new org.apache.tomcat.jdbc.pool.DataSource(primaryPoolProperties);
+        int number = 1;
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) continue;
+            org.apache.tomcat.jdbc.pool.DataSource replica = new org.apache.tomcat.jdbc.pool.DataSource();
+            replica.setDriverClassName(primary.getDriverClassName());
+            replica.setUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaxActive(primary.getMaxActive());
+            replica.setTestWhileIdle(primary.isTestWhileIdle());
+            replica.setValidationQuery(primary.getValidationQuery());
+            replicas.put("replica-" + number++, replica);
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, new LinkedHashMap<>(replicas), retryMillis));
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites(readYourWritesMillis);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        replicas.values().forEach(org.apache.tomcat.jdbc.pool.DataSource::close);
+        if (primary != null) primary.close();
+    }
+
+}
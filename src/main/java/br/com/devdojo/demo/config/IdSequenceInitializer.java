@@ -0,0 +1,100 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.model.AbstractEntity;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.TableStructure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Ids used to come from IDENTITY columns, so a database created before AbstractEntity moved to the pooled
+ * hibernate_sequence already holds the ids the sequence would hand out first. Before the application serves
+ * anything, the sequence table is moved past the highest id of every entity sharing it.
+ *
+ * Native sequences (H2, PostgreSQL) cannot be moved portably, so startup fails instead when one is behind.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceInitializer.class);
+    private static final String VALUE_COLUMN = "next_val";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdSequenceInitializer(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void initialize() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Map<String, DatabaseStructure> structures = new HashMap<>();
+        Map<String, Long> maxIds = new HashMap<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            if (!AbstractEntity.class.isAssignableFrom(entity.getJavaType())) continue;
+            IdentifierGenerator generator = sessionFactory.getIdentifierGenerator(entity.getJavaType().getName());
+            if (!(generator instanceof SequenceStyleGenerator)) continue;
+            DatabaseStructure structure = ((SequenceStyleGenerator) generator).getDatabaseStructure();
+            Long maxId = maxId(entity);
+            if (maxId == null) continue;
+            structures.put(structure.getName(), structure);
+            maxIds.merge(structure.getName(), maxId, Math::max);
+        }
+        maxIds.forEach((name, maxId) -> {
+            if (structures.get(name) instanceof TableStructure) seedTable(name, maxId);
+            else checkSequence(name, maxId, sessionFactory.getDialect());
+        });
+    }
+
+    private Long maxId(EntityType<?> entity) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.createQuery("select max(e.id) from " + entity.getName() + " e", Long.class).getSingleResult();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /*
+     * pooled-lo hands out next_val itself first, so it must end up above the highest id.
+     */
+    private void seedTable(String table, long maxId) {
+        int updated = jdbcTemplate.update("update " + table + " set " + VALUE_COLUMN + " = ? where " + VALUE_COLUMN + " <= ?",
+                maxId + 1, maxId);
+        if (updated > 0) {
+            LOGGER.info("Moved {} past the highest existing id, {}", table, maxId);
+            return;
+        }
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+        if (rows != null && rows == 0) {
+            jdbcTemplate.update("insert into " + table + " (" + VALUE_COLUMN + ") values (?)", maxId + 1);
+            LOGGER.info("Seeded {} past the highest existing id, {}", table, maxId);
+        }
+    }
+
+    private void checkSequence(String sequence, long maxId, Dialect dialect) {
+        Long next = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequence), Long.class);
+        if (next == null || next <= maxId)
+            throw new IllegalStateException("Sequence " + sequence + " returned " + next + " but id " + maxId
+                    + " is already taken; restart it above that value");
+    }
+
+}
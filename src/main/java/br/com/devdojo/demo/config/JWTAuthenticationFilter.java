@@ -2,36 +2,59 @@ package br.com.devdojo.demo.config;
 
 import br.com.devdojo.demo.model.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Date;
+import java.util.stream.Collectors;
 
 import static br.com.devdojo.demo.config.SecurityConstants.*;
 
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
+    private static final ObjectReader USER_READER = new ObjectMapper().readerFor(User.class);
+
     private AuthenticationManager authenticationManager;
 
-    public JWTAuthenticationFilter(AuthenticationManager authenticationManager) {
+    private final JwtTokenCodec tokenCodec;
+
+    private final boolean stateless;
+
+    private final long retryAfterSeconds;
+
+    public JWTAuthenticationFilter(AuthenticationManager authenticationManager, JwtTokenCodec tokenCodec,
+                                   boolean stateless, long retryAfterSeconds) {
         this.authenticationManager = authenticationManager;
+        this.tokenCodec = tokenCodec;
+        this.stateless = stateless;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException {
         try {
-            User user = new ObjectMapper().readValue(request.getInputStream(), User.class);
-            return this.authenticationManager
-                    .authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
+            User user = USER_READER.readValue(request.getInputStream());
+            long start = System.nanoTime();
+            try {
+                return this.authenticationManager
+                        .authenticate(new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
+            } finally {
+                RequestTimings.record(RequestTimings.Phase.AUTH, System.nanoTime() - start);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -40,14 +63,36 @@ public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     @Override
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain, Authentication authResult) throws IOException {
         String username = ((org.springframework.security.core.userdetails.User) authResult.getPrincipal()).getUsername();
-        String token = Jwts.builder()
+        long now = System.currentTimeMillis();
+        Claims claims = Jwts.claims()
                 .setSubject(username)
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SignatureAlgorithm.HS512, SECRET)
-                .compact();
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + EXPIRATION_TIME));
+        if (stateless) claims.put(ROLES_CLAIM, compactRoles(authResult));
+        long start = System.nanoTime();
+        String token = tokenCodec.encode(claims);
+        RequestTimings.record(RequestTimings.Phase.JWT, System.nanoTime() - start);
         String bearerToken = TOKEN_PREFIX + token;
         response.getWriter().write(bearerToken);
         response.addHeader(HEADER_STRING, bearerToken);
     }
 
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response, AuthenticationException failed) throws IOException, ServletException {
+        if (!(failed instanceof BoundedPasswordEncoder.LoginCapacityExceededException)) {
+            super.unsuccessfulAuthentication(request, response, failed);
+            return;
+        }
+        SecurityContextHolder.clearContext();
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), failed.getMessage());
+    }
+
+    private static String compactRoles(Authentication authResult) {
+        return authResult.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+                .collect(Collectors.joining(","));
+    }
+
 }
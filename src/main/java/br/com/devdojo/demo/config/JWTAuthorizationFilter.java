@@ -1,11 +1,16 @@
 package br.com.devdojo.demo.config;
 
 import br.com.devdojo.demo.service.CustomUserDetailService;
-import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 import javax.servlet.FilterChain;
@@ -13,16 +18,38 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import static br.com.devdojo.demo.config.SecurityConstants.*;
 
+/*
+ * A bearer token that cannot be used, because it is malformed, expired, signed with an unknown key, revoked or
+ * names a user that no longer exists, is answered with 401 and WWW-Authenticate: Bearer, so clients know to
+ * log in again. Requests without a bearer token go on anonymously and are refused with 403 as before.
+ */
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
 
     private final CustomUserDetailService customUserDetailService;
 
-    public JWTAuthorizationFilter(AuthenticationManager authenticationManager, CustomUserDetailService customUserDetailService) {
+    private final JwtTokenCodec tokenCodec;
+
+    private final TokenCache tokenCache;
+
+    private final TokenRevocationRegistry revocationRegistry;
+
+    private final boolean stateless;
+
+    public JWTAuthorizationFilter(AuthenticationManager authenticationManager, CustomUserDetailService customUserDetailService,
+                                  JwtTokenCodec tokenCodec, TokenCache tokenCache, TokenRevocationRegistry revocationRegistry,
+                                  boolean stateless) {
         super(authenticationManager);
         this.customUserDetailService = customUserDetailService;
+        this.tokenCodec = tokenCodec;
+        this.tokenCache = tokenCache;
+        this.revocationRegistry = revocationRegistry;
+        this.stateless = stateless;
     }
 
     @Override
@@ -32,22 +59,54 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
             chain.doFilter(request, response);
             return;
         }
-        UsernamePasswordAuthenticationToken authenticationToken = this.getAuthenticationToken(request);
+        UsernamePasswordAuthenticationToken authenticationToken;
+        try {
+            authenticationToken = this.getAuthenticationToken(request);
+        } catch (JwtException | IllegalArgumentException | AuthenticationException e) {
+            authenticationToken = null;
+        }
+        if (authenticationToken == null) {
+            SecurityContextHolder.clearContext();
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Invalid bearer token");
+            return;
+        }
         SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         chain.doFilter(request, response);
     }
 
     private UsernamePasswordAuthenticationToken getAuthenticationToken(HttpServletRequest request) {
-        String token = request.getHeader(HEADER_STRING);
-        if (token == null) return null;
-        String username = Jwts.parser().setSigningKey(SECRET)
-                .parseClaimsJws(token.replace(TOKEN_PREFIX, ""))
-                .getBody()
-                .getSubject();
-        UserDetails userDetails = customUserDetailService.loadUserByUsername(username);
-
-        return username != null
-                ? new UsernamePasswordAuthenticationToken(username, null, userDetails.getAuthorities())
-                : null;
+        String header = request.getHeader(HEADER_STRING);
+        if (header == null) return null;
+        String token = header.replace(TOKEN_PREFIX, "");
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            UsernamePasswordAuthenticationToken cached = tokenCache.get(token);
+            if (cached != null) return cached;
+            claims = tokenCodec.decode(token);
+        } finally {
+            RequestTimings.record(RequestTimings.Phase.JWT, System.nanoTime() - start);
+        }
+        String username = claims.getSubject();
+        if (username == null || revocationRegistry.isRevoked(username, claims.getIssuedAt())) return null;
+
+        String roles = claims.get(ROLES_CLAIM, String.class);
+        Collection<? extends GrantedAuthority> authorities = stateless && roles != null
+                ? toAuthorities(roles)
+                : customUserDetailService.loadUserByUsername(username).getAuthorities();
+
+        UsernamePasswordAuthenticationToken authenticationToken =
+                new UsernamePasswordAuthenticationToken(username, null, authorities);
+        tokenCache.put(token, authenticationToken, claims.getExpiration());
+        return authenticationToken;
+    }
+
+    private static List<GrantedAuthority> toAuthorities(String roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles.split(",")) {
+            if (!role.isEmpty()) authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+        }
+        return authorities;
     }
 }
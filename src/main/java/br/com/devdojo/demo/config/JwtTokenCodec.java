@@ -0,0 +1,151 @@
+package br.com.devdojo.demo.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.impl.TextCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static br.com.devdojo.demo.config.SecurityConstants.SECRET;
+
+/*
+ * HS512 JWS encoder/decoder with pre-keyed, thread-confined Mac instances.
+ *
+ * Tokens without a "kid" header are verified with SecurityConstants.SECRET, exactly as jjwt did before.
+ * Additional keys are configured as jwt.keys=kid:base64Secret,... and jwt.active-kid selects the one
+ * used to sign new tokens, so the secret can be rotated while tokens signed with the old key stay valid.
+ */
+@Component
+public class JwtTokenCodec {
+
+    private static final String ALGORITHM = "HS512";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SigningKey legacyKey;
+    private final Map<String, SigningKey> keys = new HashMap<>();
+    private final SigningKey activeKey;
+
+    @Autowired
+    public JwtTokenCodec(@Value("${jwt.keys:}") String keys, @Value("${jwt.active-kid:}") String activeKid) {
+        this.legacyKey = new SigningKey(null, SECRET);
+        for (String entry : keys.split(",")) {
+            if (entry.trim().isEmpty()) continue;
+            int separator = entry.indexOf(':');
+            if (separator <= 0) throw new IllegalArgumentException("jwt.keys entries must be kid:secret");
+            String kid = entry.substring(0, separator).trim();
+            this.keys.put(kid, new SigningKey(kid, entry.substring(separator + 1).trim()));
+        }
+        if (activeKid.isEmpty()) {
+            this.activeKey = legacyKey;
+        } else {
+            this.activeKey = this.keys.get(activeKid);
+            if (this.activeKey == null) throw new IllegalArgumentException("jwt.active-kid " + activeKid + " is not in jwt.keys");
+        }
+    }
+
+    public String encode(Claims claims) {
+        try {
+            String signingInput = activeKey.encodedHeader + '.' + ENCODER.encodeToString(MAPPER.writeValueAsBytes(claims));
+            return signingInput + '.' + ENCODER.encodeToString(activeKey.sign(signingInput));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Claims decode(String token) {
+        int first = token.indexOf('.');
+        int second = first < 0 ? -1 : token.indexOf('.', first + 1);
+        if (second < 0 || token.indexOf('.', second + 1) >= 0)
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters");
+
+        Map<String, Object> header = readJson(token.substring(0, first));
+        if (!ALGORITHM.equals(header.get("alg")))
+            throw new UnsupportedJwtException("Unsupported JWT algorithm: " + header.get("alg"));
+        Object kid = header.get("kid");
+        SigningKey key = kid == null ? legacyKey : keys.get(kid);
+        if (key == null) throw new SignatureException("Unknown JWT key id: " + kid);
+
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(second + 1));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid JWT signature encoding", e);
+        }
+        if (!MessageDigest.isEqual(key.sign(token.substring(0, second)), signature))
+            throw new SignatureException("JWT signature does not match locally computed signature");
+
+        Claims claims = Jwts.claims(readJson(token.substring(first + 1, second)));
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        if (expiration != null && now >= expiration.getTime())
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + expiration);
+        Date notBefore = claims.getNotBefore();
+        if (notBefore != null && now < notBefore.getTime())
+            throw new PrematureJwtException(null, claims, "JWT must not be accepted before " + notBefore);
+        return claims;
+    }
+
+    private static Map<String, Object> readJson(String base64Url) {
+        try {
+            return MAPPER.readValue(DECODER.decode(base64Url), MAP_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MalformedJwtException("Unable to read JWT JSON value", e);
+        }
+    }
+
+    private static final class SigningKey {
+        private final String encodedHeader;
+        private final ThreadLocal<Mac> mac;
+
+        private SigningKey(String kid, String base64Secret) {
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put("alg", ALGORITHM);
+            if (kid != null) header.put("kid", kid);
+            try {
+                this.encodedHeader = ENCODER.encodeToString(MAPPER.writeValueAsBytes(header));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            // Same key derivation as Jwts.builder().signWith(HS512, String)
+            SecretKeySpec secretKey = new SecretKeySpec(TextCodec.BASE64.decode(base64Secret), "HmacSHA512");
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance("HmacSHA512");
+                    instance.init(secretKey);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        private byte[] sign(String signingInput) {
+            return mac.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+}
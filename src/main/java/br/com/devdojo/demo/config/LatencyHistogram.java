@@ -0,0 +1,107 @@
+package br.com.devdojo.demo.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Lock-free log-linear histogram of nanosecond latencies, in the spirit of HdrHistogram: every power of two
+ * is split into 32 linear sub-buckets, so a reported percentile is at most ~3% above the recorded value.
+ * Values above ~68 s are clamped into the last bucket.
+ *
+ * Recording is one atomic increment plus a max update that only CASes when the max grows.
+ * snapshot(true) drains the buckets with getAndSet, so a value recorded concurrently lands in exactly one interval.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 36;
+    private static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) current = max.get();
+    }
+
+    public Snapshot snapshot(boolean reset) {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, reset ? max.getAndSet(0) : max.get());
+    }
+
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < 2 * SUB_BUCKETS) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /*
+         * Smallest recorded bucket value at or below which the given percentage of the samples fall,
+         * never above the recorded max.
+         */
+        public long percentile(double percentile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100d * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(highestEquivalentValue(i), max);
+            }
+            return max;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", count);
+            stats.put("p50Millis", millis(percentile(50)));
+            stats.put("p90Millis", millis(percentile(90)));
+            stats.put("p99Millis", millis(percentile(99)));
+            stats.put("p999Millis", millis(percentile(99.9)));
+            stats.put("maxMillis", millis(max));
+            return stats;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000d;
+        }
+    }
+
+}
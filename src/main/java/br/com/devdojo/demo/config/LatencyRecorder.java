@@ -0,0 +1,21 @@
+package br.com.devdojo.demo.config;
+
+/*
+ * A pair of histograms fed by the same samples: the interval one is drained on every interval read,
+ * the cumulative one keeps everything since startup.
+ */
+public class LatencyRecorder {
+
+    private final LatencyHistogram interval = new LatencyHistogram();
+    private final LatencyHistogram cumulative = new LatencyHistogram();
+
+    public void record(long nanos) {
+        interval.record(nanos);
+        cumulative.record(nanos);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(boolean interval) {
+        return interval ? this.interval.snapshot(true) : cumulative.snapshot(false);
+    }
+
+}
@@ -0,0 +1,31 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static br.com.devdojo.demo.config.SecurityConstants.LOGIN_URL;
+
+/*
+ * Runs before JWTAuthenticationFilter, where no principal exists yet, so logins are limited by remote address.
+ */
+public class LoginRateLimitFilter extends RateLimitFilter {
+
+    private static final RequestMatcher LOGIN = new AntPathRequestMatcher(LOGIN_URL, "POST");
+
+    public LoginRateLimitFilter(RateLimits rateLimits) {
+        super(rateLimits);
+    }
+
+    @Override
+    protected RateLimiter limiterFor(HttpServletRequest request) {
+        return LOGIN.matches(request) ? rateLimits.getLoginLimiter() : null;
+    }
+
+    @Override
+    protected String keyFor(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+}
@@ -0,0 +1,61 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Runs after JWTAuthorizationFilter, so authenticated clients are limited by username
+ * and anonymous ones by remote address.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher PROTECTED = new AntPathRequestMatcher("/*/protected/**");
+    private static final RequestMatcher ADMIN = new AntPathRequestMatcher("/*/admin/**");
+
+    protected final RateLimits rateLimits;
+
+    public RateLimitFilter(RateLimits rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        RateLimiter limiter = limiterFor(request);
+        if (limiter != null) {
+            long wait = limiter.tryAcquire(keyFor(request));
+            if (wait > 0) {
+                rateLimits.recordRejection();
+                response.setHeader("Retry-After", String.valueOf(TimeUnit.NANOSECONDS.toSeconds(wait) + 1));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase());
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    protected RateLimiter limiterFor(HttpServletRequest request) {
+        if (ADMIN.matches(request)) return rateLimits.getAdminLimiter();
+        if (PROTECTED.matches(request)) return rateLimits.getProtectedLimiter();
+        return null;
+    }
+
+    protected String keyFor(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && !(authentication instanceof AnonymousAuthenticationToken)
+                ? "user:" + authentication.getName()
+                : "ip:" + request.getRemoteAddr();
+    }
+
+}
@@ -0,0 +1,55 @@
+package br.com.devdojo.demo.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket per key, implemented as GCRA: each bucket is a single AtomicLong holding the
+ * theoretical arrival time of the next permit, updated with one CAS. Keys are spread over the
+ * bins of a ConcurrentHashMap, so different clients never contend with each other.
+ */
+public class RateLimiter {
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long emissionInterval;
+    private final long burstWindow;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1)
+            throw new IllegalArgumentException("permitsPerSecond and burst must be positive");
+        this.emissionInterval = Math.max(1L, (long) (1_000_000_000d / permitsPerSecond));
+        this.burstWindow = emissionInterval * burst;
+    }
+
+    /*
+     * Returns 0 when a permit was taken, otherwise the nanoseconds until the next permit is available.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        for (; ; ) {
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + emissionInterval;
+            long wait = next - now - burstWindow;
+            if (wait > 0) return wait;
+            if (bucket.compareAndSet(arrival, next)) return 0L;
+        }
+    }
+
+    /*
+     * A bucket whose arrival time is in the past is full, i.e. indistinguishable from a new one,
+     * so it can be dropped without changing any client's allowance.
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+}
@@ -0,0 +1,86 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class RateLimits {
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.protected.permits-per-second:50}")
+    private double protectedRate;
+
+    @Value("${rate-limit.protected.burst:100}")
+    private int protectedBurst;
+
+    @Value("${rate-limit.admin.permits-per-second:10}")
+    private double adminRate;
+
+    @Value("${rate-limit.admin.burst:20}")
+    private int adminBurst;
+
+    @Value("${rate-limit.login.permits-per-second:5}")
+    private double loginRate;
+
+    @Value("${rate-limit.login.burst:20}")
+    private int loginBurst;
+
+    private RateLimiter protectedLimiter;
+    private RateLimiter adminLimiter;
+    private RateLimiter loginLimiter;
+
+    @PostConstruct
+    public void init() {
+        protectedLimiter = new RateLimiter(protectedRate, protectedBurst);
+        adminLimiter = new RateLimiter(adminRate, adminBurst);
+        loginLimiter = new RateLimiter(loginRate, loginBurst);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:1000}")
+    public void evictIdle() {
+        evicted.add(protectedLimiter.evictIdle() + adminLimiter.evictIdle() + loginLimiter.evictIdle());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RateLimiter getProtectedLimiter() {
+        return protectedLimiter;
+    }
+
+    public RateLimiter getAdminLimiter() {
+        return adminLimiter;
+    }
+
+    public RateLimiter getLoginLimiter() {
+        return loginLimiter;
+    }
+
+    void recordRejection() {
+        rejected.increment();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("protectedKeys", protectedLimiter.size());
+        stats.put("adminKeys", adminLimiter.size());
+        stats.put("loginKeys", loginLimiter.size());
+        stats.put("rejected", rejected.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+}
@@ -0,0 +1,39 @@
+package br.com.devdojo.demo.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Remembers which users wrote recently, so their reads stay on the primary until replication has caught up.
+ * The state is per node: with several nodes behind a load balancer the window must cover sticky routing.
+ */
+public class ReadYourWrites {
+
+    private static final int SWEEP_THRESHOLD = 10000;
+
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ReadYourWrites(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void recordWrite(String username) {
+        long now = System.currentTimeMillis();
+        pinnedUntil.put(username, now + windowMillis);
+        if (pinnedUntil.size() > SWEEP_THRESHOLD) pinnedUntil.values().removeIf(until -> until <= now);
+    }
+
+    public boolean isPinned(String username) {
+        Long until = pinnedUntil.get(username);
+        if (until == null) return false;
+        if (until > System.currentTimeMillis()) return true;
+        pinnedUntil.remove(username, until);
+        return false;
+    }
+
+    public int size() {
+        return pinnedUntil.size();
+    }
+
+}
@@ -0,0 +1,121 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Sends connections of read-only transactions to the replicas, round-robin, and everything else to the primary.
+ * A replica that fails to hand out a connection is skipped for retryMillis; when no replica is usable the primary
+ * serves the read. Threads pinned with pinToPrimary() always get the primary, so a client reads its own writes.
+ *
+ * The read-only flag is only known once the transaction has started, so this must sit behind a
+ * LazyConnectionDataSourceProxy that defers fetching the connection to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final Pool primary;
+    private final List<Pool> replicas = new ArrayList<>();
+    private final long retryMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long retryMillis) {
+        this.primary = new Pool("primary", primary);
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Pool(name, dataSource)));
+        this.retryMillis = retryMillis;
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(username, password);
+    }
+
+    private Connection connect(String username, String password) throws SQLException {
+        if (!replicas.isEmpty() && PINNED.get() == null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            long now = System.currentTimeMillis();
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                Pool replica = replicas.get((start + i) % replicas.size());
+                if (replica.downUntil.get() > now) continue;
+                try {
+                    return replica.connect(username, password);
+                } catch (SQLException e) {
+                    replica.failures.increment();
+                    replica.downUntil.set(now + retryMillis);
+                    logger.warn("Replica " + replica.name + " is unavailable for " + retryMillis + " ms: " + e.getMessage());
+                }
+            }
+            fallbacks.increment();
+        }
+        return primary.connect(username, password);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("fallbacksToPrimary", fallbacks.sum());
+        long now = System.currentTimeMillis();
+        stats.put(primary.name, primary.stats(now));
+        for (Pool replica : replicas) stats.put(replica.name, replica.stats(now));
+        return stats;
+    }
+
+    private static final class Pool {
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicLong downUntil = new AtomicLong();
+        private final LongAdder connections = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Pool(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private Connection connect(String username, String password) throws SQLException {
+            Connection connection = username == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+            connections.increment();
+            return connection;
+        }
+
+        private Map<String, Object> stats(long now) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("healthy", downUntil.get() <= now);
+            stats.put("connections", connections.sum());
+            stats.put("failures", failures.sum());
+            if (dataSource instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+                org.apache.tomcat.jdbc.pool.DataSource pool = (org.apache.tomcat.jdbc.pool.DataSource) dataSource;
+                stats.put("active", pool.getActive());
+                stats.put("idle", pool.getIdle());
+                stats.put("maxActive", pool.getMaxActive());
+            }
+            return stats;
+        }
+    }
+
+}
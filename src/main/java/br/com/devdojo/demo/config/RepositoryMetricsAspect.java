@@ -0,0 +1,99 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.repository.UserRepository;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * Times every StudentRepository and UserRepository call, per method and outcome, into an interval histogram
+ * (drained on read) and a cumulative one, and adds the time to the db phase of the current request.
+ * Methods returning a Stream are timed up to the query being opened, not while the caller consumes it.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "metrics.repository.enabled", matchIfMissing = true)
+public class RepositoryMetricsAspect {
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodMetrics>> repositories = new ConcurrentHashMap<>();
+
+    @Around("execution(* *(..)) && (target(br.com.devdojo.demo.repository.StudentRepository)"
+            + " || target(br.com.devdojo.demo.repository.UserRepository))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMetrics metrics = metrics(joinPoint.getTarget(), ((MethodSignature) joinPoint.getSignature()).getMethod());
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            record(metrics.ok, System.nanoTime() - start);
+            return result;
+        } catch (Throwable t) {
+            record(metrics.error, System.nanoTime() - start);
+            throw t;
+        }
+    }
+
+    /*
+     * Latency percentiles keyed by "Repository.method(ParameterTypes)" and outcome. The interval view
+     * covers the time since the previous interval read and resets it.
+     */
+    public Map<String, Object> stats(boolean interval) {
+        Map<String, Object> stats = new TreeMap<>();
+        for (ConcurrentMap<Method, MethodMetrics> methods : repositories.values()) {
+            for (MethodMetrics metrics : methods.values()) {
+                Map<String, Object> outcomes = new TreeMap<>();
+                put(outcomes, "ok", metrics.ok.snapshot(interval));
+                put(outcomes, "error", metrics.error.snapshot(interval));
+                if (!outcomes.isEmpty()) stats.put(metrics.name, outcomes);
+            }
+        }
+        return stats;
+    }
+
+    private static void record(LatencyRecorder recorder, long nanos) {
+        recorder.record(nanos);
+        RequestTimings.record(RequestTimings.Phase.DB, nanos);
+    }
+
+    private static void put(Map<String, Object> outcomes, String outcome, LatencyHistogram.Snapshot snapshot) {
+        if (snapshot.getCount() > 0) outcomes.put(outcome, snapshot.toMap());
+    }
+
+    private MethodMetrics metrics(Object target, Method method) {
+        ConcurrentMap<Method, MethodMetrics> methods = repositories.get(target.getClass());
+        if (methods == null) methods = repositories.computeIfAbsent(target.getClass(), type -> new ConcurrentHashMap<>());
+        MethodMetrics metrics = methods.get(method);
+        if (metrics == null) metrics = methods.computeIfAbsent(method, m -> new MethodMetrics(name(target, m)));
+        return metrics;
+    }
+
+    private static String name(Object target, Method method) {
+        String repository = target instanceof StudentRepository ? StudentRepository.class.getSimpleName()
+                : target instanceof UserRepository ? UserRepository.class.getSimpleName()
+                : target.getClass().getSimpleName();
+        StringJoiner parameters = new StringJoiner(",", "(", ")");
+        for (Class<?> type : method.getParameterTypes()) parameters.add(type.getSimpleName());
+        return repository + "." + method.getName() + parameters;
+    }
+
+    private static final class MethodMetrics {
+        private final String name;
+        private final LatencyRecorder ok = new LatencyRecorder();
+        private final LatencyRecorder error = new LatencyRecorder();
+
+        private MethodMetrics(String name) {
+            this.name = name;
+        }
+    }
+
+}
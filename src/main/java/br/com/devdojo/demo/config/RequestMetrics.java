@@ -0,0 +1,107 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Latency, per-phase latency, request rate and error rate per route, where a route is the HTTP method
+ * plus the matched handler pattern, so path variables do not create a route per id.
+ */
+@Component
+public class RequestMetrics {
+
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    public void record(String route, int status, RequestTimings timings, long nanos) {
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null) metrics = routes.computeIfAbsent(route, r -> new RouteMetrics());
+        metrics.record(status, timings, nanos);
+    }
+
+    /*
+     * The interval view covers the time since the previous interval read and resets it;
+     * rates are per second over the covered time.
+     */
+    public Map<String, Object> stats(boolean interval) {
+        Map<String, Object> stats = new TreeMap<>();
+        routes.forEach((route, metrics) -> stats.put(route, metrics.stats(interval)));
+        return stats;
+    }
+
+    private static final class RouteMetrics {
+        private final long created = System.nanoTime();
+        private final AtomicLong intervalStart = new AtomicLong(created);
+        private final LatencyRecorder latency = new LatencyRecorder();
+        private final AtomicReferenceArray<LatencyRecorder> phases = new AtomicReferenceArray<>(RequestTimings.Phase.values().length);
+        private final Counters cumulative = new Counters();
+        private final Counters interval = new Counters();
+
+        private void record(int status, RequestTimings timings, long nanos) {
+            latency.record(nanos);
+            cumulative.record(status);
+            interval.record(status);
+            if (timings == null) return;
+            for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+                if (timings.has(phase)) phase(phase).record(timings.get(phase));
+            }
+        }
+
+        private LatencyRecorder phase(RequestTimings.Phase phase) {
+            LatencyRecorder recorder = phases.get(phase.ordinal());
+            if (recorder == null) {
+                phases.compareAndSet(phase.ordinal(), null, new LatencyRecorder());
+                recorder = phases.get(phase.ordinal());
+            }
+            return recorder;
+        }
+
+        private Map<String, Object> stats(boolean interval) {
+            long now = System.nanoTime();
+            long since = interval ? intervalStart.getAndSet(now) : created;
+            double seconds = Math.max(now - since, 1) / 1_000_000_000d;
+            Counters counters = interval ? this.interval : cumulative;
+            long requests = interval ? counters.requests.sumThenReset() : counters.requests.sum();
+            long errors = interval ? counters.errors.sumThenReset() : counters.errors.sum();
+            long clientErrors = interval ? counters.clientErrors.sumThenReset() : counters.clientErrors.sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("requestsPerSecond", requests / seconds);
+            stats.put("errors", errors);
+            stats.put("errorRate", requests == 0 ? 0d : errors / (double) requests);
+            stats.put("clientErrors", clientErrors);
+            stats.put("latency", latency.snapshot(interval).toMap());
+            Map<String, Object> phaseStats = new LinkedHashMap<>();
+            for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+                LatencyRecorder recorder = phases.get(phase.ordinal());
+                if (recorder != null) phaseStats.put(phase.metricName(), recorder.snapshot(interval).toMap());
+            }
+            stats.put("phases", phaseStats);
+            return stats;
+        }
+    }
+
+    /*
+     * Server errors (5xx) count as errors; client errors (4xx) are reported apart.
+     */
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+
+        private void record(int status) {
+            requests.increment();
+            if (status >= 500) errors.increment();
+            else if (status >= 400) clientErrors.increment();
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package br.com.devdojo.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class RequestMetricsConfig {
+
+    @Value("${metrics.server-timing.enabled:false}")
+    private boolean serverTiming;
+
+    @Bean
+    public FilterRegistrationBean requestMetricsFilter(RequestMetrics requestMetrics) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(new RequestMetricsFilter(requestMetrics, serverTiming));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /*
+     * Replaces Spring Boot's JSON converter, keeping its ObjectMapper.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJackson2HttpMessageConverter(objectMapper);
+    }
+
+}
@@ -0,0 +1,150 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static br.com.devdojo.demo.config.SecurityConstants.LOGIN_URL;
+
+/*
+ * Registered ahead of the security filters, so the timings cover JWT verification and the /login filter.
+ * Binds a RequestTimings to the request thread and records it into RequestMetrics once the request is done;
+ * async requests are recorded when they complete.
+ *
+ * With metrics.server-timing.enabled the phases are also sent in a Server-Timing header, written just before
+ * the response is committed, which is the last moment a header can still be added.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMATCHED = "unmatched";
+
+    private final RequestMetrics requestMetrics;
+
+    private final boolean serverTiming;
+
+    public RequestMetricsFilter(RequestMetrics requestMetrics, boolean serverTiming) {
+        this.requestMetrics = requestMetrics;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin(serverTiming);
+        ServerTimingResponse timedResponse = serverTiming ? new ServerTimingResponse(response, timings) : null;
+        boolean failed = true;
+        try {
+            chain.doFilter(request, timedResponse != null ? timedResponse : response);
+            failed = false;
+        } finally {
+            RequestTimings.end();
+            if (timedResponse != null) timedResponse.writeServerTiming();
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(request, response, timings));
+            } else {
+                record(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), timings);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, RequestTimings timings) {
+        requestMetrics.record(route(request), status, timings, System.nanoTime() - timings.getStart());
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) pattern = LOGIN_URL.equals(request.getServletPath()) ? LOGIN_URL : UNMATCHED;
+        return request.getMethod() + " " + pattern;
+    }
+
+    private final class CompletionListener implements AsyncListener {
+        private final HttpServletRequest request;
+        private final HttpServletResponse response;
+        private final RequestTimings timings;
+
+        private CompletionListener(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+            this.request = request;
+            this.response = response;
+            this.timings = timings;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, response.getStatus(), timings);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final RequestTimings timings;
+        private boolean written;
+
+        private ServerTimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        private void writeServerTiming() {
+            if (written || isCommitted()) return;
+            written = true;
+            setHeader("Server-Timing", timings.toServerTiming());
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeServerTiming();
+            super.sendRedirect(location);
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package br.com.devdojo.demo.config;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/*
+ * Time spent per phase by the request bound to the current thread, filled by the code running each phase
+ * and read by RequestMetricsFilter. Phases may nest: the user lookup includes its query, which also counts
+ * as db, and auth (the login password check) includes the user lookup.
+ */
+public final class RequestTimings {
+
+    public enum Phase {
+        JWT("JWT verification and issuance"),
+        AUTH("Login password check"),
+        USER("User lookup"),
+        DB("Repository calls"),
+        JSON("JSON serialization");
+
+        private final String description;
+
+        Phase(String description) {
+            this.description = description;
+        }
+
+        public String metricName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private final long[] nanos = new long[Phase.values().length];
+    private final int[] counts = new int[Phase.values().length];
+    private final boolean serverTiming;
+
+    private RequestTimings(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    static RequestTimings begin(boolean serverTiming) {
+        RequestTimings timings = new RequestTimings(serverTiming);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /*
+     * No-op outside a request, e.g. in the name index rebuild or a streaming response thread.
+     */
+    public static void record(Phase phase, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) timings.add(phase, nanos);
+    }
+
+    public void add(Phase phase, long nanos) {
+        this.nanos[phase.ordinal()] += nanos;
+        counts[phase.ordinal()]++;
+    }
+
+    public boolean has(Phase phase) {
+        return counts[phase.ordinal()] > 0;
+    }
+
+    public long get(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public boolean isServerTiming() {
+        return serverTiming;
+    }
+
+    /*
+     * Server-Timing header value with the phases recorded so far and the elapsed time, in milliseconds.
+     */
+    public String toServerTiming() {
+        StringJoiner header = new StringJoiner(", ");
+        for (Phase phase : Phase.values()) {
+            if (has(phase)) header.add(entry(phase.metricName(), phase.description, get(phase)));
+        }
+        header.add(entry("total", "Time until the response was committed", System.nanoTime() - start));
+        return header.toString();
+    }
+
+    private static String entry(String name, String description, long nanos) {
+        return name + ";desc=\"" + description + "\";dur=" + String.format(Locale.ROOT, "%.3f", nanos / 1_000_000d);
+    }
+
+}
@@ -0,0 +1,53 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.model.Student;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Hit ratios of the Student entity region and of the query cache, from Hibernate statistics
+ * (hibernate.generate_statistics must be on).
+ */
+@Component
+public class SecondLevelCacheStats {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Map<String, Object> stats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statisticsEnabled", statistics.isStatisticsEnabled());
+
+        SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(Student.CACHE_REGION);
+        Map<String, Object> student = new LinkedHashMap<>();
+        if (region != null) {
+            student.put("hits", region.getHitCount());
+            student.put("misses", region.getMissCount());
+            student.put("puts", region.getPutCount());
+            student.put("elementsInMemory", region.getElementCountInMemory());
+            student.put("hitRatio", ratio(region.getHitCount(), region.getMissCount()));
+        }
+        stats.put(Student.CACHE_REGION, student);
+
+        Map<String, Object> queries = new LinkedHashMap<>();
+        queries.put("hits", statistics.getQueryCacheHitCount());
+        queries.put("misses", statistics.getQueryCacheMissCount());
+        queries.put("puts", statistics.getQueryCachePutCount());
+        queries.put("hitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        stats.put("queryCache", queries);
+        return stats;
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0d : (double) hits / (hits + misses);
+    }
+
+}
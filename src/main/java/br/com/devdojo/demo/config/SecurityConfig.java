@@ -2,13 +2,13 @@ package br.com.devdojo.demo.config;
 
 import br.com.devdojo.demo.service.CustomUserDetailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 
 import static br.com.devdojo.demo.config.SecurityConstants.SIGN_UP_URL;
@@ -20,6 +20,30 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private CustomUserDetailService customUserDetailService;
 
+    @Autowired
+    private JwtTokenCodec tokenCodec;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RateLimits rateLimits;
+
+    @Autowired(required = false)
+    private ReadYourWrites readYourWrites;
+
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
+    @Value("${login.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
     /*
     * Spring Security Auth Basic
     */
@@ -42,13 +66,21 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers(HttpMethod.GET, SIGN_UP_URL).permitAll()
                 .antMatchers("/*/protected/**").hasRole("USER")
                 .antMatchers("/*/admin/**").hasRole("ADMIN").and()
-                .addFilter(new JWTAuthenticationFilter(authenticationManager()))
-                .addFilter(new JWTAuthorizationFilter(authenticationManager(), customUserDetailService));
+                .addFilter(new JWTAuthenticationFilter(authenticationManager(), tokenCodec, stateless, retryAfterSeconds))
+                .addFilter(new JWTAuthorizationFilter(authenticationManager(), customUserDetailService,
+                        tokenCodec, tokenCache, revocationRegistry, stateless));
+        if (rateLimits.isEnabled()) {
+            http.addFilterBefore(new LoginRateLimitFilter(rateLimits), JWTAuthenticationFilter.class)
+                    .addFilterAfter(new RateLimitFilter(rateLimits), JWTAuthorizationFilter.class);
+        }
+        if (readYourWrites != null) {
+            http.addFilterAfter(new ReadYourWritesFilter(readYourWrites), JWTAuthorizationFilter.class);
+        }
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(customUserDetailService).passwordEncoder(new BCryptPasswordEncoder());
+        auth.userDetailsService(customUserDetailService).passwordEncoder(passwordEncoder);
     }
 
 }
@@ -6,6 +6,9 @@ public class SecurityConstants {
     static final String TOKEN_PREFIX = "Bearer ";
     static final String HEADER_STRING = "Authorization";
     static final String SIGN_UP_URL = "/users/sign-up";
+    static final String LOGIN_URL = "/login";
     static final long EXPIRATION_TIME = 86400000L;
+    static final String ROLES_CLAIM = "roles";
+    static final String ROLE_PREFIX = "ROLE_";
 
 }
@@ -0,0 +1,83 @@
+package br.com.devdojo.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/*
+ * Adds the time spent writing JSON bodies, and Smile ones through TimedJackson2SmileHttpMessageConverter, to the
+ * json phase of the current request.
+ *
+ * When the Server-Timing header is requested the body is serialized into a buffer first, so the header,
+ * which must be sent before the body, can include the serialization time. Otherwise the body is written
+ * straight to the response and the phase also includes copying it into the response buffer.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        write(outputMessage, message -> super.writeInternal(object, type, message));
+    }
+
+    /*
+     * Shared with TimedJackson2SmileHttpMessageConverter, which extends a different Jackson converter.
+     */
+    static void write(HttpOutputMessage outputMessage, BodyWriter writer) throws IOException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            writer.write(outputMessage);
+            return;
+        }
+        long start = System.nanoTime();
+        if (!timings.isServerTiming()) {
+            try {
+                writer.write(outputMessage);
+            } finally {
+                timings.add(RequestTimings.Phase.JSON, System.nanoTime() - start);
+            }
+            return;
+        }
+        BufferedOutputMessage buffered = new BufferedOutputMessage(outputMessage.getHeaders());
+        try {
+            writer.write(buffered);
+        } finally {
+            timings.add(RequestTimings.Phase.JSON, System.nanoTime() - start);
+        }
+        buffered.body.writeTo(outputMessage.getBody());
+    }
+
+    interface BodyWriter {
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        private BufferedOutputMessage(HttpHeaders headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+}
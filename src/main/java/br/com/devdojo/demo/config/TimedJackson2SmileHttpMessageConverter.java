@@ -0,0 +1,29 @@
+package br.com.devdojo.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/*
+ * Smile (binary JSON) counterpart of TimedJackson2HttpMessageConverter, served for Accept: application/x-jackson-smile.
+ * Spring 4.3 has no Smile converter of its own, so this one builds on the abstract Jackson converter.
+ */
+public class TimedJackson2SmileHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public TimedJackson2SmileHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper, APPLICATION_SMILE);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        TimedJackson2HttpMessageConverter.write(outputMessage, message -> super.writeInternal(object, type, message));
+    }
+
+}
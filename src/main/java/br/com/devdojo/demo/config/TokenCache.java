@@ -0,0 +1,138 @@
+package br.com.devdojo.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Caches the authentication resolved for a verified JWT, keyed by the SHA-256 digest of the token,
+ * so repeated requests skip the signature check and the user lookup.
+ */
+@Component
+public class TokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${jwt.cache.ttl-ms:300000}")
+    private long ttl;
+
+    public UsernamePasswordAuthenticationToken get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, entry)) evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.authentication;
+    }
+
+    public void put(String token, UsernamePasswordAuthenticationToken authentication, Date expiration) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl;
+        if (expiration != null) expiresAt = Math.min(expiresAt, expiration.getTime());
+        if (expiresAt <= now) return;
+        if (entries.size() >= maxSize) evict(now);
+        entries.put(digest(token), new Entry(authentication, expiresAt));
+    }
+
+    public void invalidate(String username) {
+        if (username == null) return;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (username.equals(iterator.next().authentication.getName())) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0d : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    /*
+     * Drops expired entries first and, if the cache is still full, trims it to 90% of its capacity
+     * so the cost of a full scan is paid once per batch of inserts instead of on every put.
+     */
+    private void evict(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        int target = maxSize - Math.max(1, maxSize / 10);
+        iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest messageDigest = SHA_256.get();
+        messageDigest.reset();
+        return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class Entry {
+        private final UsernamePasswordAuthenticationToken authentication;
+        private final long expiresAt;
+
+        private Entry(UsernamePasswordAuthenticationToken authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * In-memory copy of User.revokedAt. Tokens issued before the revocation second of their subject
+ * are rejected without touching the database on the request path.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private final ConcurrentHashMap<String, Long> revocations = new ConcurrentHashMap<>();
+
+    private volatile long watermark = 0L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Value("${jwt.revocation.clock-skew-ms:60000}")
+    private long clockSkew;
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    /*
+     * Only rows revoked after the last seen revocation (minus the clock skew between nodes) are read.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-ms:30000}",
+            initialDelayString = "${jwt.revocation.refresh-ms:30000}")
+    public synchronized void refresh() {
+        List<Object[]> rows = userRepository.findRevokedSince(watermark - clockSkew);
+        long newWatermark = watermark;
+        for (Object[] row : rows) {
+            String username = (String) row[0];
+            Long revokedAt = (Long) row[1];
+            Long previous = revocations.put(username, revokedAt);
+            if (previous == null || !previous.equals(revokedAt)) tokenCache.invalidate(username);
+            newWatermark = Math.max(newWatermark, revokedAt);
+        }
+        watermark = newWatermark;
+    }
+
+    /*
+     * The iat claim only has whole seconds, so both instants are compared at that precision: a token is revoked
+     * when it was issued in an earlier second than the revocation. A login in the same second as the revocation
+     * is accepted, at the cost of also accepting a token issued in that second just before it.
+     */
+    public boolean isRevoked(String username, Date issuedAt) {
+        Long revokedAt = revocations.get(username);
+        return revokedAt != null && (issuedAt == null || issuedAt.getTime() / 1000 < revokedAt / 1000);
+    }
+
+    public int size() {
+        return revocations.size();
+    }
+
+}
@@ -0,0 +1,94 @@
+package br.com.devdojo.demo.endpoint;
+
+import br.com.devdojo.demo.config.BoundedPasswordEncoder;
+import br.com.devdojo.demo.config.RateLimits;
+import br.com.devdojo.demo.config.ReplicaRoutingDataSource;
+import br.com.devdojo.demo.config.RequestMetrics;
+import br.com.devdojo.demo.config.RepositoryMetricsAspect;
+import br.com.devdojo.demo.config.SecondLevelCacheStats;
+import br.com.devdojo.demo.config.TokenCache;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+
+@RestController
+@RequestMapping("v1/admin/metrics")
+public class MetricsEndpoint {
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RateLimits rateLimits;
+
+    @Autowired
+    private SecondLevelCacheStats secondLevelCacheStats;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired(required = false)
+    private RepositoryMetricsAspect repositoryMetrics;
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @ApiOperation(value = "Return the hit, miss and eviction counters of the verified token cache")
+    @GetMapping(path = "token-cache")
+    public ResponseEntity<?> tokenCache() {
+        return new ResponseEntity<>(tokenCache.stats(), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return the latency and queue depth of the login password verification pool")
+    @GetMapping(path = "login")
+    public ResponseEntity<?> login() {
+        return new ResponseEntity<>(passwordEncoder.stats(), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return the number of tracked clients and rejected requests of the rate limiter")
+    @GetMapping(path = "rate-limit")
+    public ResponseEntity<?> rateLimit() {
+        return new ResponseEntity<>(rateLimits.stats(), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return the hit ratios of the student second-level cache region and of the query cache")
+    @GetMapping(path = "second-level-cache")
+    public ResponseEntity<?> secondLevelCache() {
+        return new ResponseEntity<>(secondLevelCacheStats.stats(), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return connection, failure and health counters of the primary and replica pools")
+    @GetMapping(path = "datasource")
+    public ResponseEntity<?> datasource() throws SQLException {
+        if (!dataSource.isWrapperFor(ReplicaRoutingDataSource.class))
+            return new ResponseEntity<>(Collections.singletonMap("routing", false), HttpStatus.OK);
+        return new ResponseEntity<>(dataSource.unwrap(ReplicaRoutingDataSource.class).stats(), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return latency percentiles per repository method and outcome; view=interval resets after reading")
+    @GetMapping(path = "repositories")
+    public ResponseEntity<?> repositories(@RequestParam(defaultValue = "cumulative") String view) {
+        if (repositoryMetrics == null)
+            return new ResponseEntity<>(Collections.singletonMap("enabled", false), HttpStatus.OK);
+        return new ResponseEntity<>(repositoryMetrics.stats("interval".equals(view)), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return latency, phase latency, request rate and error rate per route; view=interval resets after reading")
+    @GetMapping(path = "requests")
+    public ResponseEntity<?> requests(@RequestParam(defaultValue = "cumulative") String view) {
+        return new ResponseEntity<>(requestMetrics.stats("interval".equals(view)), HttpStatus.OK);
+    }
+
+}
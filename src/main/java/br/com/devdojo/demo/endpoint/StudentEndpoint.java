@@ -1,72 +1,231 @@
 package br.com.devdojo.demo.endpoint;
 
+import br.com.devdojo.demo.error.InvalidBulkRequestException;
+import br.com.devdojo.demo.error.PreconditionFailedException;
 import br.com.devdojo.demo.error.ResourceNotFoundException;
+import br.com.devdojo.demo.model.BulkResult;
+import br.com.devdojo.demo.model.BulkStudentRequest;
+import br.com.devdojo.demo.model.CursorPage;
+import br.com.devdojo.demo.model.ImportResult;
 import br.com.devdojo.demo.model.Student;
 import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.service.StudentBulkService;
+import br.com.devdojo.demo.service.StudentImportService;
+import br.com.devdojo.demo.service.StudentNameIndex;
+import br.com.devdojo.demo.service.StudentStreamService;
+import br.com.devdojo.demo.util.EntityTags;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.transaction.Transactional;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 
 @RestController
 @RequestMapping("v1")
 public class StudentEndpoint {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+
+    private static final int MAX_IDS = 500;
+
     @Autowired
     StudentRepository studentRepository;
 
+    @Autowired
+    StudentNameIndex studentNameIndex;
+
+    @Autowired
+    StudentStreamService studentStreamService;
+
+    @Autowired
+    StudentImportService studentImportService;
+
+    @Autowired
+    StudentBulkService studentBulkService;
+
     @ApiOperation(value = "Return a list with all students", response = Student[].class)
+    @Transactional(readOnly = true)
     @GetMapping(path = "protected/students")
     public ResponseEntity<?> listAll(Pageable pageable) {
-        return new ResponseEntity<>(studentRepository.findAll(pageable), HttpStatus.OK);
+        Page<Student> page = studentRepository.findAll(pageable);
+        // A matching If-None-Match is answered with 304 before the page is serialized
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(page, page.getNumber(), page.getSize(), page.getTotalElements(), page.getSort()))
+                .body(page);
+    }
+
+    @ApiOperation(value = "Return the students after the given cursor, ordered by id; pass an empty cursor to start")
+    @Transactional(readOnly = true)
+    @GetMapping(path = "protected/students", params = "cursor")
+    public ResponseEntity<?> listAllByCursor(@RequestParam("cursor") String cursor,
+                                             @RequestParam(value = "size", defaultValue = "20") int size,
+                                             @RequestParam(value = "count", defaultValue = "false") boolean count) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Slice<Student> slice = studentRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decodeCursor(cursor),
+                new PageRequest(0, pageSize));
+        List<Student> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? CursorPage.encodeCursor(content.get(content.size() - 1).getId()) : null;
+        Long totalElements = count ? studentRepository.count() : null;
+        return new ResponseEntity<>(new CursorPage<>(content, pageSize, nextCursor, totalElements), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Return the students with the given ids in a single query; unknown ids are left out",
+            response = Student[].class)
+    @Transactional(readOnly = true)
+    @GetMapping(path = "protected/students", params = "ids")
+    public ResponseEntity<?> findByIds(@RequestParam("ids") List<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_IDS)
+            throw new InvalidBulkRequestException("At most " + MAX_IDS + " ids can be requested at once");
+        if (distinct.isEmpty())
+            return new ResponseEntity<>(new Student[0], HttpStatus.OK);
+        return new ResponseEntity<>(studentRepository.findAll(distinct), HttpStatus.OK);
     }
 
+    @Transactional(readOnly = true)
     @GetMapping(path = "protected/students/{id}")
-    public ResponseEntity<?> getStudentById(@PathVariable("id") Long id) {
+    public ResponseEntity<?> getStudentById(@PathVariable("id") Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                            WebRequest webRequest) {
+        if (ifNoneMatch != null) {
+            Long version = studentRepository.findVersionById(id);
+            if (version == null)
+                throw studentNotFound(id);
+            if (webRequest.checkNotModified(EntityTags.of(version)))
+                return null;
+        }
         Student student = verifyIfStudentExists(id);
-        return new ResponseEntity<>(student, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(EntityTags.of(student.getVersion())).body(student);
     }
 
+    @ApiOperation(value = "Return a page of students whose name contains the given text, without a total count")
+    @Transactional(readOnly = true)
     @GetMapping(path = "protected/students/findByName/{name}")
-    public ResponseEntity<?> getStudentByName(@PathVariable("name") String name) {
-        return new ResponseEntity<>(studentRepository.findByNameIgnoreCaseContaining(name), HttpStatus.OK);
+    public ResponseEntity<?> getStudentByName(@PathVariable("name") String name, Pageable pageable) {
+        return new ResponseEntity<>(studentNameIndex.findByNameIgnoreCaseContaining(name, pageable), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Stream every student whose name contains the given text as newline delimited JSON")
+    @GetMapping(path = "protected/students/findByName/{name}/stream")
+    public ResponseEntity<StreamingResponseBody> streamStudentByName(@PathVariable("name") String name) {
+        return ResponseEntity.ok()
+                .contentType(StudentStreamService.APPLICATION_NDJSON)
+                .body(studentStreamService.findByName(name));
     }
 
     @PostMapping(path = "admin/students")
-    @Transactional(rollbackOn = Exception.class)
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<?> save(@Valid @RequestBody Student student) {
-        return new ResponseEntity<>(studentRepository.save(student), HttpStatus.CREATED);
+        Student saved = studentRepository.save(student);
+        studentNameIndex.index(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityTags.of(saved.getVersion())).body(saved);
+    }
+
+    @ApiOperation(value = "Import students from a JSON array or newline delimited JSON body, reporting rejected rows",
+            response = ImportResult.class)
+    @PostMapping(path = "admin/students/import")
+    public ResponseEntity<?> importStudents(InputStream body) throws IOException {
+        return new ResponseEntity<>(studentImportService.importStudents(body), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Stream every student as newline delimited JSON (format=ndjson) or CSV (format=csv)")
+    @GetMapping(path = "admin/students/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format))
+            return ResponseEntity.ok()
+                    .contentType(StudentStreamService.TEXT_CSV)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students.csv\"")
+                    .body(studentStreamService.exportCsv());
+        if ("ndjson".equalsIgnoreCase(format))
+            return ResponseEntity.ok()
+                    .contentType(StudentStreamService.APPLICATION_NDJSON)
+                    .body(studentStreamService.exportNdjson());
+        return ResponseEntity.badRequest().build();
     }
 
     @DeleteMapping(path = "admin/students/{id}")
+    @Transactional(rollbackFor = Exception.class)
     public ResponseEntity<?> delete(@PathVariable("id") Long id) {
-        verifyIfStudentExists(id);
-        studentRepository.delete(id);
+        if (studentRepository.deleteStudent(id) == 0)
+            throw studentNotFound(id);
+        studentNameIndex.remove(id);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @ApiOperation(value = "Delete the students selected by ids, nameContains or emailEquals with set-based statements",
+            response = BulkResult.class)
+    @PostMapping(path = "admin/students/bulk-delete")
+    public ResponseEntity<?> bulkDelete(@RequestBody BulkStudentRequest request) {
+        return new ResponseEntity<>(studentBulkService.delete(request), HttpStatus.OK);
+    }
+
+    @ApiOperation(value = "Set newName and/or newEmail on the students selected by ids, nameContains or emailEquals",
+            response = BulkResult.class)
+    @PostMapping(path = "admin/students/bulk-update")
+    public ResponseEntity<?> bulkUpdate(@Valid @RequestBody BulkStudentRequest request) {
+        return new ResponseEntity<>(studentBulkService.update(request), HttpStatus.OK);
+    }
+
+    /*
+     * A single UPDATE whatever the state of the second-level cache; the affected row count tells whether the
+     * student exists. With If-Match the update only applies to the version the client read, otherwise 412 is
+     * returned. Without it the last write wins, so a concurrent write never fails a request that set no
+     * precondition.
+     */
     @PutMapping(path = "admin/students")
-    public ResponseEntity<?> update(@RequestBody Student student) {
-        verifyIfStudentExists(student.getId());
-        studentRepository.save(student);
+    @Transactional(rollbackFor = Exception.class)
+    public ResponseEntity<?> update(@Valid @RequestBody Student student,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long id = student.getId();
+        List<Long> versions = ifMatch != null ? EntityTags.versionsOf(ifMatch) : null;
+        if (studentRepository.updateStudent(id, student.getName(), student.getEmail(), versions) == 0) {
+            if (versions == null) {
+                if (ifMatch != null)
+                    throw new PreconditionFailedException("Student " + id + " does not exist");
+                throw studentNotFound(id);
+            }
+            // Failure path only: tell a missing student from a stale version
+            Long current = studentRepository.findVersionById(id);
+            if (current == null)
+                throw studentNotFound(id);
+            throw new PreconditionFailedException("Student " + id + " has changed, current ETag is " + EntityTags.of(current));
+        }
+        studentNameIndex.index(student);
+        if (versions != null && versions.size() == 1)
+            return ResponseEntity.ok().eTag(EntityTags.of(versions.get(0) + 1)).build();
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
     private Student verifyIfStudentExists(@PathVariable("id") Long id) {
         Student student = studentRepository.findOne(id);
         if (student == null)
-            throw new ResourceNotFoundException("Student not found for ID: " + id);
+            throw studentNotFound(id);
         return student;
     }
 
+    private static ResourceNotFoundException studentNotFound(Long id) {
+        return new ResourceNotFoundException("Student not found for ID: " + id);
+    }
+
 }
 
 
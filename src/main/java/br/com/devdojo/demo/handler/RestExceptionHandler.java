@@ -1,9 +1,13 @@
 package br.com.devdojo.demo.handler;
 
 import br.com.devdojo.demo.error.ErrorDetails;
+import br.com.devdojo.demo.error.InvalidBulkRequestException;
+import br.com.devdojo.demo.error.InvalidCursorException;
+import br.com.devdojo.demo.error.PreconditionFailedException;
 import br.com.devdojo.demo.error.ResourceNotFoundDetails;
 import br.com.devdojo.demo.error.ResourceNotFoundException;
 import br.com.devdojo.demo.error.ValidationErrorDetails;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +40,33 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(rnfDetails, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler({InvalidCursorException.class, InvalidBulkRequestException.class})
+    public ResponseEntity<?> handleBadRequestException(RuntimeException brException) {
+        ErrorDetails errorDetails = ResourceNotFoundDetails.Builder.newBuilder()
+                .timestamp(new Date().getTime())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .title("Bad Request")
+                .detail(brException.getMessage())
+                .developerMessage(brException.getClass().getName())
+                .build();
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<?> handlePreconditionFailedException(RuntimeException pfException) {
+        ErrorDetails errorDetails = ResourceNotFoundDetails.Builder.newBuilder()
+                .timestamp(new Date().getTime())
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .title("Precondition Failed")
+                .detail(pfException instanceof PreconditionFailedException ? pfException.getMessage()
+                        : "The student was changed by another request")
+                .developerMessage(pfException.getClass().getName())
+                .build();
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+    }
+
     @Override
     protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body,
                                                              HttpHeaders headers, HttpStatus status,
@@ -0,0 +1,117 @@
+package br.com.devdojo.demo.javaclient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/*
+ * Caches the "Bearer <jwt>" header returned by /login and renews it refreshMarginMillis before the token's exp,
+ * so requests never carry an expired token and only one thread logs in at a time.
+ *
+ * Inside the refresh margin the token is still valid: one caller renews it while the others keep using the
+ * current one. Only a missing or expired token makes callers wait for the login.
+ */
+final class BearerTokenManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BearerTokenManager.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Supplier<String> login;
+    private final long refreshMarginMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Token token;
+
+    BearerTokenManager(Supplier<String> login, long refreshMarginMillis) {
+        this(login, refreshMarginMillis, System::currentTimeMillis);
+    }
+
+    BearerTokenManager(Supplier<String> login, long refreshMarginMillis, LongSupplier clock) {
+        this.login = login;
+        this.refreshMarginMillis = refreshMarginMillis;
+        this.clock = clock;
+    }
+
+    String token() {
+        Token current = token;
+        long now = clock.getAsLong();
+        if (current != null && now < current.refreshAt) return current.header;
+        if (current != null && now < current.expiresAt) {
+            if (!refreshLock.tryLock()) return current.header;
+            try {
+                return refresh(current).header;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not renew the bearer token, using the current one until it expires", e);
+                return current.header;
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        refreshLock.lock();
+        try {
+            Token latest = token;
+            if (latest != null && clock.getAsLong() < latest.expiresAt) return latest.header;
+            return refresh(latest).header;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /*
+     * Called when the server rejected header, e.g. after a restart with a new signing key.
+     */
+    void invalidate(String header) {
+        refreshLock.lock();
+        try {
+            Token current = token;
+            if (current != null && current.header.equals(header)) token = null;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Token refresh(Token expected) {
+        if (token != expected) return token;
+        String header = login.get();
+        if (header == null) throw new IllegalStateException("/login did not return an Authorization header");
+        long expiresAt = expiresAt(header);
+        long refreshAt = expiresAt == Long.MAX_VALUE ? Long.MAX_VALUE : expiresAt - refreshMarginMillis;
+        Token refreshed = new Token(header, refreshAt, expiresAt);
+        token = refreshed;
+        return refreshed;
+    }
+
+    /*
+     * The client cannot verify the signature, it only reads exp from the payload to know when to renew.
+     */
+    static long expiresAt(String header) {
+        String[] parts = header.substring(header.indexOf(' ') + 1).split("\\.");
+        if (parts.length < 2) return Long.MAX_VALUE;
+        try {
+            JsonNode exp = MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+            return exp == null || !exp.canConvertToLong() ? Long.MAX_VALUE : exp.asLong() * 1000;
+        } catch (IOException | IllegalArgumentException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final class Token {
+        private final String header;
+        private final long refreshAt;
+        private final long expiresAt;
+
+        private Token(String header, long refreshAt, long expiresAt) {
+            this.header = header;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package br.com.devdojo.demo.javaclient;
+
+/*
+ * Connection settings for JavaClientDAO. Connections are pooled and kept alive, so maxConnectionsPerRoute
+ * bounds how many requests can be in flight against the server at once, blocking or async.
+ */
+public class JavaClientConfig {
+
+    private final String baseUrl;
+    private final String username;
+    private final String password;
+    private final int maxConnectionsPerRoute;
+    private final int maxConnectionsTotal;
+    private final int connectTimeoutMillis;
+    private final int connectionRequestTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long idleConnectionTimeoutMillis;
+    private final long tokenRefreshMarginMillis;
+    private final boolean binary;
+    private final boolean compression;
+
+    private JavaClientConfig(Builder builder) {
+        this.baseUrl = builder.baseUrl;
+        this.username = builder.username;
+        this.password = builder.password;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.maxConnectionsTotal = Math.max(builder.maxConnectionsTotal, builder.maxConnectionsPerRoute);
+        this.connectTimeoutMillis = builder.connectTimeoutMillis;
+        this.connectionRequestTimeoutMillis = builder.connectionRequestTimeoutMillis;
+        this.readTimeoutMillis = builder.readTimeoutMillis;
+        this.idleConnectionTimeoutMillis = builder.idleConnectionTimeoutMillis;
+        this.tokenRefreshMarginMillis = builder.tokenRefreshMarginMillis;
+        this.binary = builder.binary;
+        this.compression = builder.compression;
+    }
+
+    public static Builder builder(String baseUrl, String username, String password) {
+        return new Builder(baseUrl, username, password);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public long getIdleConnectionTimeoutMillis() {
+        return idleConnectionTimeoutMillis;
+    }
+
+    public long getTokenRefreshMarginMillis() {
+        return tokenRefreshMarginMillis;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public static final class Builder {
+        private final String baseUrl;
+        private final String username;
+        private final String password;
+        private int maxConnectionsPerRoute = 20;
+        private int maxConnectionsTotal = 50;
+        private int connectTimeoutMillis = 2000;
+        private int connectionRequestTimeoutMillis = 5000;
+        private int readTimeoutMillis = 10000;
+        private long idleConnectionTimeoutMillis = 30000;
+        private long tokenRefreshMarginMillis = 60000;
+        private boolean binary = true;
+        private boolean compression = true;
+
+        private Builder(String baseUrl, String username, String password) {
+            this.baseUrl = baseUrl;
+            this.username = username;
+            this.password = password;
+        }
+
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        public Builder maxConnectionsTotal(int maxConnectionsTotal) {
+            this.maxConnectionsTotal = maxConnectionsTotal;
+            return this;
+        }
+
+        public Builder connectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+            return this;
+        }
+
+        /*
+         * How long a request waits for a free pooled connection before failing.
+         */
+        public Builder connectionRequestTimeoutMillis(int connectionRequestTimeoutMillis) {
+            this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+            return this;
+        }
+
+        public Builder readTimeoutMillis(int readTimeoutMillis) {
+            this.readTimeoutMillis = readTimeoutMillis;
+            return this;
+        }
+
+        /*
+         * Idle pooled connections are closed after this long, and a connection idle for half of it is
+         * validated before reuse, so a server-side keep-alive timeout does not surface as a failed request.
+         */
+        public Builder idleConnectionTimeoutMillis(long idleConnectionTimeoutMillis) {
+            this.idleConnectionTimeoutMillis = idleConnectionTimeoutMillis;
+            return this;
+        }
+
+        /*
+         * The bearer token is renewed this long before it expires.
+         */
+        public Builder tokenRefreshMarginMillis(long tokenRefreshMarginMillis) {
+            this.tokenRefreshMarginMillis = tokenRefreshMarginMillis;
+            return this;
+        }
+
+        /*
+         * Send and ask for Smile (binary JSON) instead of JSON; the server answers JSON to clients that do not.
+         */
+        public Builder binary(boolean binary) {
+            this.binary = binary;
+            return this;
+        }
+
+        /*
+         * Send Accept-Encoding: gzip, deflate and decompress the responses transparently.
+         */
+        public Builder compression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        public JavaClientConfig build() {
+            if (maxConnectionsPerRoute <= 0) throw new IllegalArgumentException("maxConnectionsPerRoute must be positive");
+            return new JavaClientConfig(this);
+        }
+    }
+
+}
@@ -3,27 +3,159 @@ package br.com.devdojo.demo.javaclient;
 import br.com.devdojo.demo.handler.RestResponseExceptionHandler;
 import br.com.devdojo.demo.model.PageableResponse;
 import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class JavaClientDAO {
+/*
+ * Blocking and CompletableFuture clients for the student endpoints, sharing one pool of keep-alive connections.
+ * close() it when done to release the connections and the async threads.
+ */
+public class JavaClientDAO implements Closeable {
 
-    private RestTemplate restTemplate = new RestTemplateBuilder()
-            .rootUri("http://localhost:8080/v1/protected/students")
-            .basicAuthorization("goku", "teste")
-            .errorHandler(new RestResponseExceptionHandler()).build();
+    private static final int CURSOR_PAGE_SIZE = 500;
 
-    private RestTemplate restTemplateAdmin = new RestTemplateBuilder()
-            .rootUri("http://localhost:8080/v1/admin/students")
-            .basicAuthorization("goku", "teste")
-            .errorHandler(new RestResponseExceptionHandler()).build();
+    private static final int DEFAULT_PREFETCH_PAGES = 2;
+
+    static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final CloseableHttpClient httpClient;
+
+    private final ExecutorService executor;
+
+    private final RestTemplate restTemplate;
+
+    private final RestTemplate restTemplateAdmin;
+
+    private final List<MediaType> accept;
+
+    public JavaClientDAO() {
+        this(JavaClientConfig.builder("http://localhost:8080", "goku", "teste").build(), new RestResponseExceptionHandler());
+    }
+
+    /*
+     * Client for the application at baseUrl, e.g. http://localhost:8080, with the default JavaClientConfig.
+     */
+    public JavaClientDAO(String baseUrl, String username, String password) {
+        this(JavaClientConfig.builder(baseUrl, username, password).build());
+    }
+
+    /*
+     * Error responses throw HttpStatusCodeException; the bearer token is fetched from /login on the first request.
+     */
+    public JavaClientDAO(JavaClientConfig config) {
+        this(config, new DefaultResponseErrorHandler());
+    }
+
+    private JavaClientDAO(JavaClientConfig config, ResponseErrorHandler errorHandler) {
+        this.httpClient = createHttpClient(config);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        RestTemplate login = new RestTemplateBuilder().rootUri(config.getBaseUrl()).requestFactory(requestFactory).build();
+        BearerTokenInterceptor bearerToken = new BearerTokenInterceptor(new BearerTokenManager(
+                () -> login.postForEntity("/login", new HttpEntity<>(credentials(config), createJSONHeader()), String.class)
+                        .getHeaders().getFirst(HttpHeaders.AUTHORIZATION),
+                config.getTokenRefreshMarginMillis()));
+        // RestTemplate asks for and writes the type of the first converter that fits, so Smile goes first; its
+        // ObjectMapper gets the settings of the JSON one, which ignores the Page fields PageableResponse can't set
+        List<HttpMessageConverter<?>> converters = new RestTemplate().getMessageConverters();
+        if (config.isBinary()) {
+            ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+            Jackson2ObjectMapperBuilder.json().configure(smileMapper);
+            converters.add(0, new AbstractJackson2HttpMessageConverter(smileMapper, APPLICATION_SMILE) {
+            });
+        }
+        this.accept = config.isBinary() ? Arrays.asList(APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                : Collections.singletonList(MediaType.APPLICATION_JSON);
+        this.restTemplate = new RestTemplateBuilder()
+                .rootUri(config.getBaseUrl() + "/v1/protected/students")
+                .requestFactory(requestFactory)
+                .messageConverters(converters)
+                .additionalInterceptors(bearerToken)
+                .errorHandler(errorHandler).build();
+        this.restTemplateAdmin = new RestTemplateBuilder()
+                .rootUri(config.getBaseUrl() + "/v1/admin/students")
+                .requestFactory(requestFactory)
+                .messageConverters(converters)
+                .additionalInterceptors(bearerToken)
+                .errorHandler(errorHandler).build();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("java-client-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(config.getMaxConnectionsPerRoute(), config.getMaxConnectionsPerRoute(),
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    private static CloseableHttpClient createHttpClient(JavaClientConfig config) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        connectionManager.setMaxTotal(config.getMaxConnectionsTotal());
+        connectionManager.setValidateAfterInactivity((int) (config.getIdleConnectionTimeoutMillis() / 2));
+        HttpClientBuilder builder = HttpClientBuilder.create();
+        // HttpClient asks for gzip/deflate and inflates the responses unless told not to
+        if (!config.isCompression()) builder.disableContentCompression();
+        return builder
+                .setConnectionManager(connectionManager)
+                .evictIdleConnections(config.getIdleConnectionTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(config.getConnectTimeoutMillis())
+                        .setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+                        .setSocketTimeout(config.getReadTimeoutMillis())
+                        .build())
+                .build();
+    }
+
+    /*
+     * Written by the Jackson converter of the login RestTemplate, so quotes and backslashes are escaped.
+     */
+    private static Map<String, String> credentials(JavaClientConfig config) {
+        Map<String, String> credentials = new LinkedHashMap<>();
+        credentials.put("username", config.getUsername());
+        credentials.put("password", config.getPassword());
+        return credentials;
+    }
 
     private static HttpHeaders createJSONHeader() {
         HttpHeaders headers = new HttpHeaders();
@@ -35,16 +167,68 @@ public class JavaClientDAO {
         return restTemplate.getForObject("/{id}", Student.class, id);
     }
 
+    /*
+     * One request and one query for all ids; unknown ids are left out of the result.
+     */
+    public List<Student> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+        return restTemplate.exchange("/?ids={ids}", HttpMethod.GET, null,
+                new ParameterizedTypeReference<List<Student>>() {
+                }, StringUtils.collectionToCommaDelimitedString(ids)).getBody();
+    }
+
+    public List<Student> findByName(String name) {
+        return restTemplate.exchange("/findByName/{name}", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PageableResponse<Student>>() {
+                }, name).getBody().getContent();
+    }
+
     public List<Student> listAll() {
         return restTemplate.exchange("/", HttpMethod.GET, null,
                 new ParameterizedTypeReference<PageableResponse<Student>>() {
                 }).getBody().getContent();
     }
 
+    /*
+     * One keyset page; pass an empty cursor for the first page and getNextCursor() of the
+     * previous page afterwards, until it is null.
+     */
+    public PageableResponse<Student> listAll(String cursor, int size) {
+        return restTemplate.exchange("/?cursor={cursor}&size={size}", HttpMethod.GET, null,
+                new ParameterizedTypeReference<PageableResponse<Student>>() {
+                }, cursor, size).getBody();
+    }
+
+    public List<Student> listAllByCursor() {
+        try (Stream<Student> students = streamAll()) {
+            return students.collect(Collectors.toList());
+        }
+    }
+
+    public Stream<Student> streamAll() {
+        return streamAll(CURSOR_PAGE_SIZE, DEFAULT_PREFETCH_PAGES);
+    }
+
+    /*
+     * Every student in id order, fetched lazily one cursor page at a time with up to prefetchPages pages
+     * downloaded ahead of the consumer. Close the stream, e.g. with try-with-resources, when not reading it to
+     * the end.
+     */
+    public Stream<Student> streamAll(int pageSize, int prefetchPages) {
+        StudentPageIterator iterator = iterateAll(pageSize, prefetchPages);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    public StudentPageIterator iterateAll(int pageSize, int prefetchPages) {
+        return new StudentPageIterator(cursor -> restTemplate.execute("/?cursor={cursor}&size={size}", HttpMethod.GET,
+                request -> request.getHeaders().setAccept(accept),
+                response -> StudentPageIterator.parse(response.getBody(), response.getHeaders().getContentType()),
+                cursor, pageSize), prefetchPages);
+    }
+
     public Student save(Student student) {
-        return restTemplateAdmin.exchange("/", HttpMethod.POST,
-                new HttpEntity<>(student, createJSONHeader()),
-                Student.class).getBody();
+        return restTemplateAdmin.exchange("/", HttpMethod.POST, new HttpEntity<>(student), Student.class).getBody();
     }
 
     public void update(Student student) {
@@ -55,4 +239,63 @@ public class JavaClientDAO {
         restTemplateAdmin.delete("/{id}", id);
     }
 
+    public CompletableFuture<Student> findByIdAsync(long id) {
+        return CompletableFuture.supplyAsync(() -> findById(id), executor);
+    }
+
+    public CompletableFuture<List<Student>> findByIdsAsync(Collection<Long> ids) {
+        return CompletableFuture.supplyAsync(() -> findByIds(ids), executor);
+    }
+
+    public CompletableFuture<List<Student>> findByNameAsync(String name) {
+        return CompletableFuture.supplyAsync(() -> findByName(name), executor);
+    }
+
+    public CompletableFuture<List<Student>> listAllAsync() {
+        return CompletableFuture.supplyAsync(this::listAll, executor);
+    }
+
+    public CompletableFuture<Student> saveAsync(Student student) {
+        return CompletableFuture.supplyAsync(() -> save(student), executor);
+    }
+
+    public CompletableFuture<Void> updateAsync(Student student) {
+        return CompletableFuture.runAsync(() -> update(student), executor);
+    }
+
+    public CompletableFuture<Void> deleteAsync(long id) {
+        return CompletableFuture.runAsync(() -> delete(id), executor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        httpClient.close();
+    }
+
+    /*
+     * The server only accepts JWTs, so every request carries the cached token. The server answers 401 to a token it
+     * no longer accepts, expired, revoked or signed with a key it has rotated out, so the request is retried once
+     * with a fresh login.
+     */
+    private static final class BearerTokenInterceptor implements ClientHttpRequestInterceptor {
+        private final BearerTokenManager tokens;
+
+        private BearerTokenInterceptor(BearerTokenManager tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            String token = tokens.token();
+            request.getHeaders().set(HttpHeaders.AUTHORIZATION, token);
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode() != HttpStatus.UNAUTHORIZED) return response;
+            response.close();
+            tokens.invalidate(token);
+            request.getHeaders().set(HttpHeaders.AUTHORIZATION, tokens.token());
+            return execution.execute(request, body);
+        }
+    }
+
 }
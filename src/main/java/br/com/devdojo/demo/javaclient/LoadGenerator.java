@@ -0,0 +1,330 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.config.LatencyHistogram;
+import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Open-model load generator on top of JavaClientDAO: requests are started on a fixed schedule of `rate` per second,
+ * whether or not earlier ones have finished, and run on `concurrency` threads.
+ *
+ * Response time is measured from the moment a request was scheduled to start, not from when a thread picked it up,
+ * so time spent queued behind a slow server is counted (coordinated omission correction). Service time, measured
+ * from the actual start, is reported next to it; a large gap between the two means the server could not keep up.
+ *
+ * Usage: LoadGenerator [--base-url=http://localhost:8080] [--rate=100] [--concurrency=16] [--warmup=10] [--duration=30]
+ *                      [--seed=200] [--mix=findById=50,listAll=15,findByName=15,save=10,update=5,delete=5]
+ *                      [--output=target/load-report.json] [--username=goku] [--password=teste]
+ */
+public class LoadGenerator {
+
+    public enum Operation {
+        FIND_BY_ID("findById"),
+        LIST_ALL("listAll"),
+        FIND_BY_NAME("findByName"),
+        SAVE("save"),
+        UPDATE("update"),
+        DELETE("delete");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) return operation;
+            }
+            throw new IllegalArgumentException("Unknown operation " + key);
+        }
+    }
+
+    private static final String[] NAMES = {"Goku", "Vegeta", "Gohan", "Piccolo", "Trunks", "Bulma", "Kuririn", "Videl"};
+
+    private final JavaClientDAO dao;
+    private final Options options;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final OperationStats total = new OperationStats();
+    private final IdPool ids = new IdPool();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Operation[] schedule;
+
+    public LoadGenerator(JavaClientDAO dao, Options options) {
+        this.dao = dao;
+        this.options = options;
+        for (Operation operation : Operation.values()) stats.put(operation, new OperationStats());
+        List<Operation> weighted = new ArrayList<>();
+        options.mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) weighted.add(operation);
+        });
+        if (weighted.isEmpty()) throw new IllegalArgumentException("The request mix is empty");
+        this.schedule = weighted.toArray(new Operation[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        JavaClientConfig config = JavaClientConfig.builder(options.baseUrl, options.username, options.password)
+                .maxConnectionsPerRoute(options.concurrency)
+                .build();
+        try (JavaClientDAO dao = new JavaClientDAO(config)) {
+            Map<String, Object> report = new LoadGenerator(dao, options).run();
+            print(report, System.out);
+            write(report, new File(options.output));
+        }
+    }
+
+    public Map<String, Object> run() throws InterruptedException {
+        for (int i = 0; i < options.seed; i++) ids.add(dao.save(newStudent()).getId());
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(options.concurrency, options.concurrency,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        int maxBacklog = 0;
+        try {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * 1_000_000_000d / options.rate);
+                if (intended >= end) break;
+                sleepUntil(intended);
+                Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                boolean measured = intended >= measureFrom;
+                executor.execute(() -> execute(operation, intended, measured));
+                maxBacklog = Math.max(maxBacklog, executor.getQueue().size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        return report(maxBacklog);
+    }
+
+    private void execute(Operation operation, long intended, boolean measured) {
+        long started = System.nanoTime();
+        boolean failed = false;
+        try {
+            perform(operation);
+        } catch (RuntimeException e) {
+            failed = true;
+        }
+        long done = System.nanoTime();
+        if (!measured) return;
+        stats.get(operation).record(done - intended, done - started, failed);
+        total.record(done - intended, done - started, failed);
+    }
+
+    private void perform(Operation operation) {
+        switch (operation) {
+            case FIND_BY_ID:
+                Long id = ids.random();
+                if (id != null) dao.findById(id);
+                else perform(Operation.SAVE);
+                break;
+            case LIST_ALL:
+                dao.listAll();
+                break;
+            case FIND_BY_NAME:
+                dao.findByName(NAMES[ThreadLocalRandom.current().nextInt(NAMES.length)].substring(1));
+                break;
+            case SAVE:
+                ids.add(dao.save(newStudent()).getId());
+                break;
+            case UPDATE:
+                Long updated = ids.random();
+                if (updated == null) break;
+                Student student = newStudent();
+                student.setId(updated);
+                dao.update(student);
+                break;
+            case DELETE:
+                Long deleted = ids.take();
+                if (deleted != null) dao.delete(deleted);
+                break;
+        }
+    }
+
+    private Student newStudent() {
+        long n = sequence.incrementAndGet();
+        return new Student(NAMES[(int) (n % NAMES.length)] + " " + n, "load" + n + "@email.com");
+    }
+
+    private Map<String, Object> report(int maxBacklog) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", options.baseUrl);
+        config.put("rate", options.rate);
+        config.put("concurrency", options.concurrency);
+        config.put("warmupSeconds", options.warmupSeconds);
+        config.put("durationSeconds", options.durationSeconds);
+        config.put("mix", options.mixDescription());
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> {
+            Map<String, Object> row = operationStats.toMap(options.durationSeconds);
+            if (!row.get("count").equals(0L)) operations.put(operation.key, row);
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("maxBacklog", maxBacklog);
+        report.put("total", total.toMap(options.durationSeconds));
+        report.put("operations", operations);
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    static void print(Map<String, Object> report, PrintStream out) {
+        out.println("Load test " + report.get("config"));
+        out.println("Max backlog: " + report.get("maxBacklog") + " requests");
+        out.println(String.format(Locale.ROOT, "%-12s %9s %7s %9s %10s %10s %10s %10s %10s %12s",
+                "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "svc p99 ms"));
+        Map<String, Object> rows = new LinkedHashMap<>((Map<String, Object>) report.get("operations"));
+        rows.put("total", report.get("total"));
+        rows.forEach((name, value) -> {
+            Map<String, Object> row = (Map<String, Object>) value;
+            Map<String, Object> response = (Map<String, Object>) row.get("responseTime");
+            Map<String, Object> service = (Map<String, Object>) row.get("serviceTime");
+            out.println(String.format(Locale.ROOT, "%-12s %9d %7d %9.1f %10.2f %10.2f %10.2f %10.2f %10.2f %12.2f",
+                    name, row.get("count"), row.get("errors"), row.get("throughput"),
+                    response.get("p50Millis"), response.get("p90Millis"), response.get("p99Millis"),
+                    response.get("p999Millis"), response.get("maxMillis"), service.get("p99Millis")));
+        });
+    }
+
+    static void write(Map<String, Object> report, File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create " + directory);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) LockSupport.parkNanos(remaining);
+    }
+
+    public static final class Options {
+        private String baseUrl = "http://localhost:8080";
+        private String username = "goku";
+        private String password = "teste";
+        private double rate = 100;
+        private int concurrency = 16;
+        private long warmupSeconds = 10;
+        private long durationSeconds = 30;
+        private int seed = 200;
+        private String output = "target/load-report.json";
+        private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+        public static Options parse(String... args) {
+            Options options = new Options();
+            options.mix("findById=50,listAll=15,findByName=15,save=10,update=5,delete=5");
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                String name = arg.substring(arg.startsWith("--") ? 2 : 0, separator);
+                String value = arg.substring(separator + 1);
+                switch (name) {
+                    case "base-url": options.baseUrl = value; break;
+                    case "username": options.username = value; break;
+                    case "password": options.password = value; break;
+                    case "rate": options.rate = Double.parseDouble(value); break;
+                    case "concurrency": options.concurrency = Integer.parseInt(value); break;
+                    case "warmup": options.warmupSeconds = Long.parseLong(value); break;
+                    case "duration": options.durationSeconds = Long.parseLong(value); break;
+                    case "seed": options.seed = Integer.parseInt(value); break;
+                    case "output": options.output = value; break;
+                    case "mix": options.mix(value); break;
+                    default: throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+            if (options.rate <= 0 || options.concurrency <= 0 || options.durationSeconds <= 0)
+                throw new IllegalArgumentException("rate, concurrency and duration must be positive");
+            return options;
+        }
+
+        private void mix(String value) {
+            mix.clear();
+            for (String entry : value.split(",")) {
+                String[] parts = entry.trim().split("=");
+                if (parts.length != 2) throw new IllegalArgumentException("Expected operation=weight but got " + entry);
+                mix.put(Operation.of(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+        }
+
+        private String mixDescription() {
+            StringBuilder description = new StringBuilder();
+            mix.forEach((operation, weight) -> description.append(description.length() == 0 ? "" : ",")
+                    .append(operation.key).append('=').append(weight));
+            return description.toString();
+        }
+    }
+
+    private static final class OperationStats {
+        private final LatencyHistogram responseTime = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long responseNanos, long serviceNanos, boolean failed) {
+            responseTime.record(responseNanos);
+            serviceTime.record(serviceNanos);
+            if (failed) errors.increment();
+        }
+
+        private Map<String, Object> toMap(long durationSeconds) {
+            LatencyHistogram.Snapshot response = responseTime.snapshot(false);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", response.getCount());
+            map.put("errors", errors.sum());
+            map.put("throughput", response.getCount() / (double) durationSeconds);
+            map.put("responseTime", response.toMap());
+            map.put("serviceTime", serviceTime.snapshot(false).toMap());
+            return map;
+        }
+    }
+
+    /*
+     * Ids of students known to exist, for the operations that need one.
+     */
+    private static final class IdPool {
+        private final List<Long> ids = new ArrayList<>();
+
+        private synchronized void add(Long id) {
+            if (id != null) ids.add(id);
+        }
+
+        private synchronized Long random() {
+            return ids.isEmpty() ? null : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        private synchronized Long take() {
+            if (ids.isEmpty()) return null;
+            int index = ThreadLocalRandom.current().nextInt(ids.size());
+            Long id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.model.Student;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Coalesces findById calls made from many threads: ids requested within windowMillis of the first one, or up to
+ * maxBatchSize ids, are fetched with a single GET /v1/protected/students?ids=... and the results are fanned out
+ * to the callers. An id already being fetched is not requested again, its callers share the pending result.
+ *
+ * With cacheTtlMillis > 0 students are kept for that long, so repeated lookups do not reach the server at all.
+ * Writes made through other clients are only seen once the entry expires; invalidate() drops one earlier.
+ */
+public class StudentBatchLoader implements Closeable {
+
+    /*
+     * The server rejects requests for more ids than this.
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final JavaClientDAO dao;
+    private final long windowMillis;
+    private final int maxBatchSize;
+    private final long cacheTtlNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Long, CompletableFuture<Student>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, CachedStudent> cache = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<Long> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public StudentBatchLoader(JavaClientDAO dao) {
+        this(dao, 2, 100, 0);
+    }
+
+    public StudentBatchLoader(JavaClientDAO dao, long windowMillis, int maxBatchSize, long cacheTtlMillis) {
+        if (maxBatchSize <= 0 || maxBatchSize > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("maxBatchSize must be between 1 and " + MAX_BATCH_SIZE);
+        this.dao = dao;
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("student-batch-loader-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /*
+     * Completes with null when there is no student with this id.
+     */
+    public CompletableFuture<Student> load(long id) {
+        if (cacheTtlNanos > 0) {
+            CachedStudent cached = cache.get(id);
+            if (cached != null && cached.isFresh(System.nanoTime())) return CompletableFuture.completedFuture(cached.student);
+        }
+        CompletableFuture<Student> created = new CompletableFuture<>();
+        CompletableFuture<Student> existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) return existing;
+        enqueue(id);
+        return created;
+    }
+
+    /*
+     * Blocking variant of load, for callers that would join() the future anyway.
+     */
+    public Student findById(long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    public void invalidate(long id) {
+        cache.remove(id);
+    }
+
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdown();
+    }
+
+    private void enqueue(long id) {
+        List<Long> batch = null;
+        synchronized (lock) {
+            pending.add(id);
+            if (pending.size() >= maxBatchSize) {
+                batch = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (batch != null) dispatch(batch);
+    }
+
+    private void flush() {
+        List<Long> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) dispatch(batch);
+    }
+
+    private List<Long> takePending() {
+        List<Long> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Long> batch) {
+        CompletableFuture<List<Student>> students;
+        try {
+            students = dao.findByIdsAsync(batch);
+        } catch (RuntimeException e) {
+            students = new CompletableFuture<>();
+            students.completeExceptionally(e);
+        }
+        students.whenComplete((found, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                for (Long id : batch) inFlight.remove(id).completeExceptionally(cause);
+                return;
+            }
+            Map<Long, Student> byId = new HashMap<>(found.size() * 2);
+            for (Student student : found) byId.put(student.getId(), student);
+            long now = System.nanoTime();
+            if (cacheTtlNanos > 0) {
+                cache.values().removeIf(cached -> !cached.isFresh(now));
+                byId.forEach((id, student) -> cache.put(id, new CachedStudent(student, now + cacheTtlNanos)));
+            }
+            for (Long id : batch) inFlight.remove(id).complete(byId.get(id));
+        });
+    }
+
+    private static final class CachedStudent {
+        private final Student student;
+        private final long expiresAtNanos;
+
+        private CachedStudent(Student student, long expiresAtNanos) {
+            this.student = student;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isFresh(long now) {
+            return now - expiresAtNanos < 0;
+        }
+    }
+
+}
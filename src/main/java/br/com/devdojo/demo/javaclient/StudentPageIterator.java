@@ -0,0 +1,171 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/*
+ * Walks every student through the cursor pages, fetching them on a background thread so the next pages are
+ * already downloading while the current one is consumed. At most prefetchPages fetched pages wait in memory;
+ * the fetching thread then blocks until the consumer catches up.
+ *
+ * Nothing is fetched before the first hasNext(). close() stops the background fetch, so callers that stop
+ * early must close the iterator, or the Stream returned by JavaClientDAO.streamAll.
+ */
+public final class StudentPageIterator implements Iterator<Student>, Closeable {
+
+    private static final ObjectReader STUDENT_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(Student.class);
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+    private static final CustomizableThreadFactory THREAD_FACTORY = new CustomizableThreadFactory("student-page-prefetch-");
+
+    static {
+        THREAD_FACTORY.setDaemon(true);
+    }
+
+    private final Function<String, Page> fetcher;
+    private final BlockingQueue<Page> pages;
+    private Thread prefetcher;
+    private Iterator<Student> current = Collections.emptyIterator();
+    private boolean lastPage;
+    private volatile boolean closed;
+
+    StudentPageIterator(Function<String, Page> fetcher, int prefetchPages) {
+        if (prefetchPages <= 0) throw new IllegalArgumentException("prefetchPages must be positive");
+        this.fetcher = fetcher;
+        this.pages = new ArrayBlockingQueue<>(prefetchPages);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (lastPage || closed) return false;
+            if (prefetcher == null) {
+                prefetcher = THREAD_FACTORY.newThread(this::prefetch);
+                prefetcher.start();
+            }
+            Page page = take();
+            if (page.error != null) {
+                close();
+                if (page.error instanceof RuntimeException) throw (RuntimeException) page.error;
+                throw new IllegalStateException("Could not fetch the next page of students", page.error);
+            }
+            current = page.students.iterator();
+            lastPage = page.nextCursor == null;
+        }
+        return true;
+    }
+
+    @Override
+    public Student next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (prefetcher != null) prefetcher.interrupt();
+        pages.clear();
+    }
+
+    private Page take() {
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IllegalStateException("Interrupted while waiting for the next page of students", e);
+        }
+    }
+
+    private void prefetch() {
+        String cursor = "";
+        try {
+            while (!closed && cursor != null) {
+                Page page;
+                try {
+                    page = fetcher.apply(cursor);
+                } catch (Throwable e) {
+                    page = new Page(e);
+                }
+                pages.put(page);
+                cursor = page.nextCursor;
+            }
+        } catch (InterruptedException e) {
+            // closed by the consumer
+        }
+    }
+
+    /*
+     * Reads a CursorPage response, JSON or Smile, token by token, binding each student as it is reached
+     * instead of building the whole page first.
+     */
+    static Page parse(InputStream body, MediaType contentType) throws IOException {
+        List<Student> students = new ArrayList<>();
+        String nextCursor = null;
+        JsonFactory factory = JavaClientDAO.APPLICATION_SMILE.isCompatibleWith(contentType) ? SMILE_FACTORY : STUDENT_READER.getFactory();
+        try (JsonParser parser = factory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new IOException("Expected a page object");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) students.add(STUDENT_READER.readValue(parser));
+                } else if ("nextCursor".equals(field)) {
+                    nextCursor = value == JsonToken.VALUE_NULL ? null : parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new Page(students, nextCursor);
+    }
+
+    static final class Page {
+        private final List<Student> students;
+        private final String nextCursor;
+        private final Throwable error;
+
+        Page(List<Student> students, String nextCursor) {
+            this.students = students;
+            this.nextCursor = nextCursor;
+            this.error = null;
+        }
+
+        private Page(Throwable error) {
+            this.students = Collections.emptyList();
+            this.nextCursor = null;
+            this.error = error;
+        }
+
+        List<Student> getStudents() {
+            return students;
+        }
+
+        String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+}
@@ -1,19 +1,33 @@
 package br.com.devdojo.demo.model;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import java.io.Serializable;
 import java.util.Objects;
 
 @MappedSuperclass
 public class AbstractEntity implements Serializable {
 
+    /*
+     * Ids are reserved 50 at a time (pooled-lo), so inserts need no round trip for the key
+     * and Hibernate can send them as JDBC batches, which IDENTITY columns prevent.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "pooled")
+    @GenericGenerator(name = "pooled", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")})
     protected Long id;
 
+    @Version
+    protected long version;
+
     public Long getId() {
         return id;
     }
@@ -22,6 +36,14 @@ public class AbstractEntity implements Serializable {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,23 @@
+package br.com.devdojo.demo.model;
+
+import java.util.List;
+
+public class BulkResult {
+
+    private final long affected;
+    private final List<Long> notFound;
+
+    public BulkResult(long affected, List<Long> notFound) {
+        this.affected = affected;
+        this.notFound = notFound;
+    }
+
+    public long getAffected() {
+        return affected;
+    }
+
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+
+}
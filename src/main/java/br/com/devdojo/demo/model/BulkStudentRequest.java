@@ -0,0 +1,65 @@
+package br.com.devdojo.demo.model;
+
+import org.hibernate.validator.constraints.Email;
+import org.hibernate.validator.constraints.Length;
+
+import java.util.List;
+
+/*
+ * Selects students by exactly one of ids, nameContains (case insensitive) or emailEquals.
+ * newName and newEmail are only used by the bulk update.
+ */
+public class BulkStudentRequest {
+
+    private List<Long> ids;
+    private String nameContains;
+    private String emailEquals;
+
+    @Length(min = 1, message = "O campo nome do estudante é obrigatório")
+    private String newName;
+
+    @Email(message = "O campo email do estudante não é válido")
+    @Length(min = 1)
+    private String newEmail;
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    public void setNameContains(String nameContains) {
+        this.nameContains = nameContains;
+    }
+
+    public String getEmailEquals() {
+        return emailEquals;
+    }
+
+    public void setEmailEquals(String emailEquals) {
+        this.emailEquals = emailEquals;
+    }
+
+    public String getNewName() {
+        return newName;
+    }
+
+    public void setNewName(String newName) {
+        this.newName = newName;
+    }
+
+    public String getNewEmail() {
+        return newEmail;
+    }
+
+    public void setNewEmail(String newEmail) {
+        this.newEmail = newEmail;
+    }
+
+}
@@ -0,0 +1,65 @@
+package br.com.devdojo.demo.model;
+
+import br.com.devdojo.demo.error.InvalidCursorException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/*
+ * One page of a keyset listing. nextCursor is an opaque token for the page after this one,
+ * null on the last page; totalElements is only present when the client asked for it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private static final String ID_PREFIX = "id:";
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+    private final Long totalElements;
+
+    public CursorPage(List<T> content, int size, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((ID_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /*
+     * An empty cursor starts the listing from the beginning.
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return 0L;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(ID_PREFIX)) return Long.parseLong(decoded.substring(ID_PREFIX.length()));
+        } catch (IllegalArgumentException ignored) {
+        }
+        throw new InvalidCursorException("Invalid cursor: " + cursor);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+}
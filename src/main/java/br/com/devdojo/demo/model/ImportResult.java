@@ -0,0 +1,59 @@
+package br.com.devdojo.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Outcome of a bulk import. Only the first maxErrors row errors are listed, failed counts all of them.
+ */
+public class ImportResult {
+
+    private long imported;
+    private long failed;
+    private final List<RowError> errors = new ArrayList<>();
+    private final int maxErrors;
+
+    public ImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void addError(long row, String message) {
+        failed++;
+        if (errors.size() < maxErrors) errors.add(new RowError(row, message));
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public static class RowError {
+        private final long row;
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+}
@@ -15,6 +15,7 @@ public class PageableResponse<T> extends PageImpl<T> {
     private boolean last;
     private boolean first;
     private int totalPages;
+    private String nextCursor;
 
     public PageableResponse(@JsonProperty("content") List<T> content,
                             @JsonProperty("number") int page,
@@ -55,4 +56,12 @@ public class PageableResponse<T> extends PageImpl<T> {
         this.totalPages = totalPages;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
 }
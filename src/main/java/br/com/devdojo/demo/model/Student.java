@@ -1,13 +1,20 @@
 package br.com.devdojo.demo.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.Email;
 import org.hibernate.validator.constraints.NotEmpty;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Student.CACHE_REGION)
 public class Student extends AbstractEntity {
 
+    public static final String CACHE_REGION = "student";
+
     @NotEmpty(message = "O campo nome do estudante é obrigatório")
     private String name;
 
@@ -21,6 +21,8 @@ public class User extends AbstractEntity {
     @NotEmpty
     private boolean admin;
 
+    private Long revokedAt;
+
     public String getUsername() {
         return username;
     }
@@ -53,4 +55,12 @@ public class User extends AbstractEntity {
         this.admin = admin;
     }
 
+    public Long getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Long revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
 }
@@ -1,15 +1,96 @@
 package br.com.devdojo.demo.repository;
 
 import br.com.devdojo.demo.model.Student;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/*
+ * Query methods declared here do not inherit the read-only transaction of SimpleJpaRepository, so without the
+ * type-level default a call made outside a transaction, such as findVersionById, would be routed to the primary.
+ */
 @Repository
-public interface StudentRepository extends PagingAndSortingRepository<Student, Long> {
+@Transactional(readOnly = true)
+public interface StudentRepository extends PagingAndSortingRepository<Student, Long>, StudentRepositoryCustom {
+
+    String STREAM_FETCH_SIZE = "1000";
 
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Page<Student> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Student> findByNameIgnoreCaseContaining(String name);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Slice<Student> findByNameIgnoreCaseContaining(String name, Pageable pageable);
+
+    /*
+     * Keyset page: seeks past the last id seen on the primary key, so every page costs the same.
+     */
+    Slice<Student> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select s.version from Student s where s.id = ?1")
+    Long findVersionById(Long id);
+
+    @Query("select s.id from Student s where s.id in ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("select s.id from Student s where lower(s.name) like lower(concat('%', ?1, '%')) order by s.id")
+    List<Long> findIdsByNameIgnoreCaseContaining(String name);
+
+    @Query("select s.id from Student s where s.email = ?1 order by s.id")
+    List<Long> findIdsByEmail(String email);
+
+    /*
+     * Set-based writes for bulk operations; they bypass the persistence context and return the affected row count.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Student s where s.id in ?1")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("update Student s set s.name = ?2, s.version = s.version + 1 where s.id in ?1")
+    int updateNameByIdIn(Collection<Long> ids, String name);
+
+    @Modifying
+    @Transactional
+    @Query("update Student s set s.email = ?2, s.version = s.version + 1 where s.id in ?1")
+    int updateEmailByIdIn(Collection<Long> ids, String email);
+
+    @Modifying
+    @Transactional
+    @Query("update Student s set s.name = ?2, s.email = ?3, s.version = s.version + 1 where s.id in ?1")
+    int updateNameAndEmailByIdIn(Collection<Long> ids, String name, String email);
+
+    /*
+     * The stream methods must be consumed inside a transaction and closed afterwards;
+     * rows are fetched from a server-side cursor STREAM_FETCH_SIZE at a time.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Student> streamByNameIgnoreCaseContainingOrderById(String name);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select s from Student s order by s.id")
+    Stream<Student> streamAllByOrderById();
+
 }
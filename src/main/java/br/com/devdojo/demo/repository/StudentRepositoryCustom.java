@@ -0,0 +1,18 @@
+package br.com.devdojo.demo.repository;
+
+import java.util.Collection;
+
+/*
+ * Single-row writes that report how many rows they changed, so a missing student costs no extra query.
+ */
+public interface StudentRepositoryCustom {
+
+    /*
+     * Sets name and email and bumps the version of the student, only while its version is one of versions
+     * when they are given; returns 0 when no row matched.
+     */
+    int updateStudent(Long id, String name, String email, Collection<Long> versions);
+
+    int deleteStudent(Long id);
+
+}
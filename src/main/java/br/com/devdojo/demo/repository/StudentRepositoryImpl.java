@@ -0,0 +1,78 @@
+package br.com.devdojo.demo.repository;
+
+import br.com.devdojo.demo.model.Student;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * The statements run as plain JDBC on the connection of the current Session. A JPQL update or delete would be
+ * a Hibernate bulk operation, which evicts the whole student region and the query cache; here only the entry
+ * of the written student is evicted, with the cached query results, once the transaction has completed, so
+ * no reader can put the old row back before the commit.
+ */
+public class StudentRepositoryImpl implements StudentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateStudent(Long id, String name, String email, Collection<Long> versions) {
+        if (versions != null && versions.isEmpty()) return 0;
+        StringBuilder sql = new StringBuilder("update student set name = ?, email = ?, version = version + 1 where id = ?");
+        List<Object> parameters = new ArrayList<>(Arrays.asList(name, email, id));
+        if (versions != null) {
+            sql.append(" and version in (").append(String.join(", ", Collections.nCopies(versions.size(), "?"))).append(')');
+            parameters.addAll(versions);
+        }
+        return execute(id, sql.toString(), parameters);
+    }
+
+    @Override
+    @Transactional
+    public int deleteStudent(Long id) {
+        return execute(id, "delete from student where id = ?", Collections.singletonList(id));
+    }
+
+    private int execute(Long id, String sql, List<Object> parameters) {
+        Session session = entityManager.unwrap(Session.class);
+        int affected = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.size(); i++) statement.setObject(i + 1, parameters.get(i));
+                return statement.executeUpdate();
+            }
+        });
+        if (affected > 0) evictAfterCompletion(session.getSessionFactory().getCache(), id);
+        return affected;
+    }
+
+    private static void evictAfterCompletion(Cache cache, Long id) {
+        Runnable evict = () -> {
+            cache.evictEntity(Student.class, id);
+            cache.evictDefaultQueryRegion();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                evict.run();
+            }
+        });
+    }
+
+}
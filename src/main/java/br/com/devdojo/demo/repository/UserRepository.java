@@ -1,10 +1,16 @@
 package br.com.devdojo.demo.repository;
 
 import br.com.devdojo.demo.model.User;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
+
 public interface UserRepository extends PagingAndSortingRepository<User, Long> {
 
     User findByUsername(String username);
 
+    @Query("select u.username, u.revokedAt from User u where u.revokedAt > ?1")
+    List<Object[]> findRevokedSince(Long since);
+
 }
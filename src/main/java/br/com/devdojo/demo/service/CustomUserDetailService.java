@@ -1,5 +1,6 @@
 package br.com.devdojo.demo.service;
 
+import br.com.devdojo.demo.config.RequestTimings;
 import br.com.devdojo.demo.model.User;
 import br.com.devdojo.demo.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +10,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,9 +22,16 @@ public class CustomUserDetailService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = Optional.ofNullable(userRepository.findByUsername(username))
-                            .orElseThrow(() -> new UsernameNotFoundException("User Not Found"));
+        long start = System.nanoTime();
+        User user;
+        try {
+            user = Optional.ofNullable(userRepository.findByUsername(username))
+                           .orElseThrow(() -> new UsernameNotFoundException("User Not Found"));
+        } finally {
+            RequestTimings.record(RequestTimings.Phase.USER, System.nanoTime() - start);
+        }
         List<GrantedAuthority> authorityListAdmin = AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN");
         List<GrantedAuthority> authorityListUser = AuthorityUtils.createAuthorityList("ROLE_USER");
 
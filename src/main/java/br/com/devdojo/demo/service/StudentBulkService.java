@@ -0,0 +1,111 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.error.InvalidBulkRequestException;
+import br.com.devdojo.demo.model.BulkResult;
+import br.com.devdojo.demo.model.BulkStudentRequest;
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/*
+ * Bulk delete and update with set-based statements over chunked IN lists. Only ids are ever read,
+ * no entity is loaded into the persistence context. Each operation runs in a single transaction.
+ *
+ * Rows are always selected from the database: the name index is local to this node and may lag behind
+ * writes made elsewhere, which is acceptable for a search but not for choosing what to delete or rename.
+ */
+@Component
+public class StudentBulkService {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentNameIndex studentNameIndex;
+
+    @Value("${student.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Transactional
+    public BulkResult delete(BulkStudentRequest request) {
+        Selection selection = select(request);
+        int affected = forEachChunk(selection.found, chunk -> {
+            int deleted = studentRepository.deleteByIdIn(chunk);
+            chunk.forEach(studentNameIndex::remove);
+            return deleted;
+        });
+        return new BulkResult(affected, selection.notFound);
+    }
+
+    @Transactional
+    public BulkResult update(BulkStudentRequest request) {
+        String name = request.getNewName();
+        String email = request.getNewEmail();
+        if (name == null && email == null)
+            throw new InvalidBulkRequestException("At least one of newName or newEmail is required");
+        Selection selection = select(request);
+        int affected = forEachChunk(selection.found, chunk -> {
+            int updated;
+            if (name != null && email != null) updated = studentRepository.updateNameAndEmailByIdIn(chunk, name, email);
+            else if (name != null) updated = studentRepository.updateNameByIdIn(chunk, name);
+            else updated = studentRepository.updateEmailByIdIn(chunk, email);
+            if (name != null) chunk.forEach(id -> studentNameIndex.index(new Student(id, name, email)));
+            return updated;
+        });
+        return new BulkResult(affected, selection.notFound);
+    }
+
+    private Selection select(BulkStudentRequest request) {
+        List<Long> ids = request.getIds();
+        String name = request.getNameContains();
+        String email = request.getEmailEquals();
+        int selectors = (ids != null ? 1 : 0) + (name != null ? 1 : 0) + (email != null ? 1 : 0);
+        if (selectors != 1)
+            throw new InvalidBulkRequestException("Exactly one of ids, nameContains or emailEquals is required");
+
+        if (name != null) return new Selection(studentRepository.findIdsByNameIgnoreCaseContaining(name), Collections.emptyList());
+        if (email != null) return new Selection(studentRepository.findIdsByEmail(email), Collections.emptyList());
+
+        List<Long> requested = new ArrayList<>(new LinkedHashSet<>(ids));
+        requested.remove(null);
+        Set<Long> existing = new HashSet<>(requested.size());
+        forEachChunk(requested, chunk -> {
+            existing.addAll(studentRepository.findIdsByIdIn(chunk));
+            return 0;
+        });
+        List<Long> found = new ArrayList<>(existing.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) (existing.contains(id) ? found : notFound).add(id);
+        return new Selection(found, notFound);
+    }
+
+    private int forEachChunk(List<Long> ids, ToIntFunction<List<Long>> statement) {
+        int affected = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            affected += statement.applyAsInt(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return affected;
+    }
+
+    private static final class Selection {
+        private final List<Long> found;
+        private final List<Long> notFound;
+
+        private Selection(List<Long> found, List<Long> notFound) {
+            this.found = found;
+            this.notFound = notFound;
+        }
+    }
+
+}
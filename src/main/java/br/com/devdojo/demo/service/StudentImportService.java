@@ -0,0 +1,146 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.model.ImportResult;
+import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+ * Imports students from a JSON array or NDJSON body without reading it whole. Valid rows are persisted in
+ * batches, each in its own transaction, flushing as JDBC batches and clearing the persistence context after
+ * every batch. A row that cannot be mapped, fails validation or is rejected by the database is reported
+ * and skipped; only a syntax error in the body stops the import.
+ */
+@Component
+public class StudentImportService {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final StudentNameIndex studentNameIndex;
+    private final TransactionTemplate transaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${student.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${student.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Autowired
+    public StudentImportService(ObjectMapper objectMapper, Validator validator, StudentNameIndex studentNameIndex,
+                                PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.studentNameIndex = studentNameIndex;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public ImportResult importStudents(InputStream in) throws IOException {
+        ImportResult result = new ImportResult(maxErrors);
+        List<Student> batch = new ArrayList<>(batchSize);
+        List<Long> batchRows = new ArrayList<>(batchSize);
+        long row = 1;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) token = parser.nextToken();
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                Student student = toValidStudent(parser.readValueAsTree(), row, result);
+                if (student != null) {
+                    batch.add(student);
+                    batchRows.add(row);
+                    if (batch.size() >= batchSize) persist(batch, batchRows, result);
+                }
+                row++;
+                token = parser.nextToken();
+            }
+        } catch (JsonParseException e) {
+            result.addError(row, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+        persist(batch, batchRows, result);
+        return result;
+    }
+
+    private Student toValidStudent(JsonNode node, long row, ImportResult result) {
+        Student student;
+        try {
+            student = objectMapper.treeToValue(node, Student.class);
+        } catch (JsonProcessingException e) {
+            result.addError(row, e.getOriginalMessage());
+            return null;
+        }
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (!violations.isEmpty()) {
+            result.addError(row, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        student.setId(null);
+        return student;
+    }
+
+    private void persist(List<Student> batch, List<Long> batchRows, ImportResult result) {
+        if (batch.isEmpty()) return;
+        try {
+            transaction.execute(status -> persistAndClear(batch));
+            result.addImported(batch.size());
+        } catch (RuntimeException batchFailure) {
+            // Find the offending rows by retrying one row per transaction
+            for (int i = 0; i < batch.size(); i++) {
+                Student student = batch.get(i);
+                student.setId(null);
+                try {
+                    transaction.execute(status -> persistAndClear(Collections.singletonList(student)));
+                    result.addImported(1);
+                } catch (RuntimeException rowFailure) {
+                    result.addError(batchRows.get(i), rootMessage(rowFailure));
+                }
+            }
+        }
+        batch.clear();
+        batchRows.clear();
+    }
+
+    /*
+     * The index is updated once the transaction commits, so a batch rolled back is never searchable.
+     */
+    private Object persistAndClear(Iterable<Student> students) {
+        for (Student student : students) entityManager.persist(student);
+        entityManager.flush();
+        for (Student student : students) studentNameIndex.index(student);
+        entityManager.clear();
+        return null;
+    }
+
+    private static String rootMessage(Throwable throwable) {
+        Throwable root = throwable;
+        while (root.getCause() != null) root = root.getCause();
+        return root.getMessage();
+    }
+
+}
@@ -0,0 +1,304 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * In-memory trigram index over Student.name, so substring searches no longer need a full table scan.
+ *
+ * Candidates are the intersection of the posting lists of every trigram of the query, checked against
+ * the indexed names and finally against the loaded entities. Queries shorter than a trigram, and every
+ * query issued before the startup rebuild has finished, fall back to the repository.
+ *
+ * index and remove called inside a transaction only take effect once it commits, and not at all when it
+ * rolls back, so the index never holds a write the database does not.
+ *
+ * rebuild reads the table page by page without holding the lock, so a page can be older than a write
+ * committed while it was being read. Writes made during a rebuild are therefore recorded and applied
+ * again, last one per id, before the index is marked ready.
+ *
+ * The index only sees the startup rebuild and the writes made through this JVM, so it is off by default and
+ * only meant for a single API node: with several nodes, students written on another one would be missing from,
+ * or linger in, this node's results until it restarts. The table has no modification time or tombstones to
+ * catch up from.
+ */
+@Component
+public class StudentNameIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentNameIndex.class);
+    private static final int GRAM = 3;
+    private static final int FETCH_CHUNK = 1000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, String> names = new HashMap<>();
+
+    // Writes made while a rebuild runs, by id; a null name is a removal. Guarded by lock
+    private Map<Long, String> writesDuringRebuild;
+
+    private volatile boolean ready;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Value("${student.name-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${student.name-index.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Value("${student.name-index.rebuild-page-size:10000}")
+    private int rebuildPageSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled || !rebuildOnStartup) return;
+        Thread thread = new Thread(this::rebuild, "student-name-index-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void rebuild() {
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names.clear();
+            writesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            int indexed = 0;
+            long lastId = 0L;
+            Slice<Student> page;
+            do {
+                page = studentRepository.findByIdGreaterThanOrderByIdAsc(lastId, new PageRequest(0, rebuildPageSize));
+                lock.writeLock().lock();
+                try {
+                    for (Student student : page) {
+                        write(student.getId(), student.getName());
+                        lastId = student.getId();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                indexed += page.getNumberOfElements();
+            } while (page.hasNext());
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild.forEach(this::write);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOGGER.info("Student name index rebuilt with {} students and {} trigrams", indexed, postings.size());
+        } catch (RuntimeException e) {
+            LOGGER.error("Student name index rebuild failed, name searches will use the database", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /*
+     * Index results come back in id order, so requests sorted by anything else go to the repository.
+     */
+    public Slice<Student> findByNameIgnoreCaseContaining(String name, Pageable pageable) {
+        // One id past the page is enough to tell whether there is a next slice
+        int limit = (int) Math.min((long) pageable.getOffset() + pageable.getPageSize() + 1, Integer.MAX_VALUE);
+        List<Long> ids = pageable.getSort() == null ? findIds(name, limit) : null;
+        if (ids == null) return studentRepository.findByNameIgnoreCaseContaining(name, pageable);
+
+        int from = Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new SliceImpl<>(load(ids.subList(from, to), name.toLowerCase(Locale.ROOT)), pageable, to < ids.size());
+    }
+
+    /*
+     * Returns the ids whose indexed name contains the query, in ascending order,
+     * or null when the index cannot answer the query.
+     */
+    public List<Long> findIds(String name) {
+        return findIds(name, Integer.MAX_VALUE);
+    }
+
+    /*
+     * Same as findIds(name), but stops intersecting once limit ids have matched.
+     */
+    public List<Long> findIds(String name, int limit) {
+        if (!enabled || !ready || name == null || name.length() < GRAM) return null;
+        String query = name.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            Set<String> grams = trigrams(query);
+            PostingList[] lists = new PostingList[grams.size()];
+            int i = 0;
+            for (String gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) return new ArrayList<>();
+                lists[i++] = list;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+
+            List<Long> ids = new ArrayList<>();
+            PostingList smallest = lists[0];
+            candidates:
+            for (int c = 0; c < smallest.size() && ids.size() < limit; c++) {
+                long id = smallest.get(c);
+                for (int l = 1; l < lists.length; l++) {
+                    if (!lists[l].contains(id)) continue candidates;
+                }
+                if (names.get(id).contains(query)) ids.add(id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Student student) {
+        if (!enabled || student == null || student.getId() == null || student.getName() == null) return;
+        long id = student.getId();
+        String name = student.getName();
+        afterCommit(() -> apply(id, name));
+    }
+
+    public void remove(Long id) {
+        if (!enabled || id == null) return;
+        afterCommit(() -> apply(id, null));
+    }
+
+    private static void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+
+    private void apply(long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (writesDuringRebuild != null) writesDuringRebuild.put(id, name);
+            write(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Indexes the name of this id, or removes the id when name is null. Callers hold the write lock.
+     */
+    private void write(long id, String name) {
+        String indexed = name == null ? null : name.toLowerCase(Locale.ROOT);
+        String previous = indexed == null ? names.remove(id) : names.put(id, indexed);
+        if (previous == null ? indexed == null : previous.equals(indexed)) return;
+        Set<String> grams = indexed == null ? new LinkedHashSet<>() : trigrams(indexed);
+        if (previous != null) {
+            for (String gram : trigrams(previous)) {
+                if (!grams.contains(gram)) removePosting(gram, id);
+            }
+        }
+        for (String gram : grams) postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+    }
+
+    private List<Student> load(List<Long> ids, String query) {
+        List<Student> students = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += FETCH_CHUNK) {
+            for (Student student : studentRepository.findAll(ids.subList(from, Math.min(from + FETCH_CHUNK, ids.size())))) {
+                if (student.getName() != null && student.getName().toLowerCase(Locale.ROOT).contains(query))
+                    students.add(student);
+            }
+        }
+        students.sort(Comparator.comparing(Student::getId));
+        return students;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void removePosting(String gram, long id) {
+        PostingList list = postings.get(gram);
+        if (list != null && list.remove(id) && list.size() == 0) postings.remove(gram);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) grams.add(value.substring(i, i + GRAM));
+        return grams;
+    }
+
+    /*
+     * Sorted, growable array of ids; a boxed Set per trigram would cost several times the memory.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        private int size() {
+            return size;
+        }
+
+        private long get(int index) {
+            return ids[index];
+        }
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) return;
+            position = -position - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) return false;
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+ * Writes query results to the response as they are read from the database, as NDJSON (one JSON document
+ * per line) or CSV, so memory use does not grow with the number of rows.
+ */
+@Component
+public class StudentStreamService {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+    public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv;charset=UTF-8");
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private final StudentRepository studentRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter studentWriter;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public StudentStreamService(StudentRepository studentRepository, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.studentRepository = studentRepository;
+        this.objectMapper = objectMapper;
+        // Flushing is done every FLUSH_EVERY rows instead of after each document
+        this.studentWriter = objectMapper.writerFor(Student.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public StreamingResponseBody findByName(String name) {
+        return out -> ndjson(() -> studentRepository.streamByNameIgnoreCaseContainingOrderById(name), out);
+    }
+
+    public StreamingResponseBody exportNdjson() {
+        return out -> ndjson(studentRepository::streamAllByOrderById, out);
+    }
+
+    public StreamingResponseBody exportCsv() {
+        return out -> csv(studentRepository::streamAllByOrderById, out);
+    }
+
+    private void ndjson(Supplier<Stream<Student>> query, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            readEach(query, generator, student -> {
+                studentWriter.writeValue(generator, student);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    private void csv(Supplier<Stream<Student>> query, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,name,email\n");
+        readEach(query, writer, student -> {
+            writer.write(String.valueOf(student.getId()));
+            writer.write(',');
+            writer.write(csvField(student.getName()));
+            writer.write(',');
+            writer.write(csvField(student.getEmail()));
+            writer.write('\n');
+        });
+        writer.flush();
+    }
+
+    /*
+     * Runs the query on a server-side cursor in a read-only transaction, detaching every row once it has been
+     * written so the persistence context never holds more than the current student.
+     */
+    private long readEach(Supplier<Stream<Student>> query, Flushable output, StudentWriter rowWriter) {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<Student> students = query.get()) {
+                long written = 0;
+                for (Iterator<Student> iterator = students.iterator(); iterator.hasNext(); ) {
+                    Student student = iterator.next();
+                    rowWriter.write(student);
+                    entityManager.detach(student);
+                    if (++written % FLUSH_EVERY == 0) output.flush();
+                }
+                return written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static String csvField(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface StudentWriter {
+        void write(Student student) throws IOException;
+    }
+
+}
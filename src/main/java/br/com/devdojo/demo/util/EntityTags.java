@@ -0,0 +1,51 @@
+package br.com.devdojo.demo.util;
+
+import br.com.devdojo.demo.model.AbstractEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Strong ETags built from @Version columns: a single entity is tagged with its version, a page of entities
+ * with a digest of the ids and versions it contains.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String of(Iterable<? extends AbstractEntity> entities, Object... discriminators) {
+        StringBuilder key = new StringBuilder();
+        for (Object discriminator : discriminators) key.append(discriminator).append(';');
+        for (AbstractEntity entity : entities) key.append(entity.getId()).append(':').append(entity.getVersion()).append(',');
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /*
+     * Versions named by an If-Match header, or null for "*"; foreign tags are skipped and can never match.
+     * A weak W/"version" is accepted too: CompressionFilter weakens the tag of every compressed response, and
+     * the version names the entity state whatever the encoding of the body the client read it from.
+     */
+    public static List<Long> versionsOf(String ifMatch) {
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if ("*".equals(tag)) return null;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return versions;
+    }
+
+}
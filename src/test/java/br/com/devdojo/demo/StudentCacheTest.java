@@ -0,0 +1,95 @@
+package br.com.devdojo.demo;
+
+import br.com.devdojo.demo.config.CacheConfig;
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Runs outside a test transaction so every repository call commits and the second-level cache is really used.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CacheConfig.class)
+@TestPropertySource(properties = {"spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+public class StudentCacheTest {
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Student student;
+
+    @Before
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        student = studentRepository.save(new Student("Philipe", "philipe@email.com.br"));
+    }
+
+    @After
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void findOneWhenRepeatedShouldNotIssueSql() {
+        studentRepository.findOne(student.getId());
+        statistics.clear();
+        studentRepository.findOne(student.getId());
+        studentRepository.findOne(student.getId());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void findByNameIgnoreCaseContainingWhenRepeatedShouldNotIssueSql() {
+        studentRepository.findByNameIgnoreCaseContaining("phil");
+        statistics.clear();
+        assertThat(studentRepository.findByNameIgnoreCaseContaining("phil")).containsExactly(student);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findAllPageableWhenRepeatedShouldNotIssueSql() {
+        studentRepository.findAll(new PageRequest(0, 10));
+        statistics.clear();
+        assertThat(studentRepository.findAll(new PageRequest(0, 10)).getContent()).containsExactly(student);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void saveShouldEvictCachedEntityAndQueries() {
+        studentRepository.findOne(student.getId());
+        studentRepository.findByNameIgnoreCaseContaining("phil");
+        student.setName("Goku");
+        studentRepository.save(student);
+        assertThat(studentRepository.findOne(student.getId()).getName()).isEqualTo("Goku");
+        assertThat(studentRepository.findByNameIgnoreCaseContaining("phil")).isEmpty();
+    }
+
+}
@@ -2,6 +2,8 @@ package br.com.devdojo.demo;
 
 import br.com.devdojo.demo.model.Student;
 import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.sql.SqlCapture;
+import br.com.devdojo.demo.sql.SqlCaptureConfiguration;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -10,15 +12,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.validation.ConstraintViolationException;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static br.com.devdojo.demo.sql.SqlCapture.Type.SELECT;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @RunWith(SpringRunner.class)
 @DataJpaTest
+@Import(SqlCaptureConfiguration.class)
 //Descomente a linha abaixo para buscar dados no banco
 //@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 public class StudentRepositoryTest {
@@ -29,6 +39,12 @@ public class StudentRepositoryTest {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     @Test
     public void createShouldPersistData() {
         Student student = new Student("Philipe", "philipe@email.com.br");
@@ -63,8 +79,10 @@ public class StudentRepositoryTest {
         Student student2 = new Student("philipe", "philipe123@email.com.br");
         this.studentRepository.save(student);
         this.studentRepository.save(student2);
+        sqlCapture.clear();
         List<Student> studentList = this.studentRepository.findByNameIgnoreCaseContaining("philipe");
         assertThat(studentList.size()).isEqualTo(2);
+        sqlCapture.assertCount(SELECT, 1);
     }
 
     @Test
@@ -76,6 +94,44 @@ public class StudentRepositoryTest {
         assertThat(studentList.get(0).getName()).isEqualTo("Philipe");
     }
 
+    @Test
+    public void findByNameIgnoreCaseContainingWithPageableShouldReturnSliceWithNext() {
+        this.studentRepository.save(new Student("Philipe", "philipe@email.com.br"));
+        this.studentRepository.save(new Student("philipe", "philipe123@email.com.br"));
+        sqlCapture.clear();
+        Slice<Student> slice = this.studentRepository.findByNameIgnoreCaseContaining("PHIL", new PageRequest(0, 1));
+        assertThat(slice.getContent().size()).isEqualTo(1);
+        assertThat(slice.hasNext()).isTrue();
+        // A slice reads one extra row instead of running a count query
+        sqlCapture.assertCount(SELECT, 1);
+    }
+
+    @Test
+    public void streamByNameIgnoreCaseContainingShouldStreamMatchesInIdOrder() {
+        Student student = this.studentRepository.save(new Student("Philipe", "philipe@email.com.br"));
+        Student student2 = this.studentRepository.save(new Student("philipe", "philipe123@email.com.br"));
+        this.studentRepository.save(new Student("Goku", "goku@email.com.br"));
+        try (Stream<Student> stream = this.studentRepository.streamByNameIgnoreCaseContainingOrderById("lip")) {
+            assertThat(stream.map(Student::getId).collect(Collectors.toList()))
+                    .containsExactly(student.getId(), student2.getId());
+        }
+    }
+
+    @Test
+    public void findByIdGreaterThanOrderByIdAscShouldSeekPastTheGivenId() {
+        Student student = this.studentRepository.save(new Student("Philipe", "philipe@email.com.br"));
+        Student student2 = this.studentRepository.save(new Student("Goku", "goku@email.com.br"));
+        Student student3 = this.studentRepository.save(new Student("Vegeta", "vegeta@email.com.br"));
+        sqlCapture.clear();
+        Slice<Student> slice = this.studentRepository.findByIdGreaterThanOrderByIdAsc(student.getId(), new PageRequest(0, 1));
+        assertThat(slice.getContent()).containsExactly(student2);
+        assertThat(slice.hasNext()).isTrue();
+        slice = this.studentRepository.findByIdGreaterThanOrderByIdAsc(student2.getId(), new PageRequest(0, 1));
+        assertThat(slice.getContent()).containsExactly(student3);
+        assertThat(slice.hasNext()).isFalse();
+        sqlCapture.assertCount(SELECT, 2);
+    }
+
     @Test
     public void createWhenNameIsNullShouldThrowConstraintViolationException() {
         thrown.expect(ConstraintViolationException.class);
@@ -83,6 +139,7 @@ public class StudentRepositoryTest {
         Student student = new Student();
         student.setEmail("teste@email.com");
         this.studentRepository.save(student);
+        this.testEntityManager.flush();
     }
 
     @Test
@@ -91,6 +148,7 @@ public class StudentRepositoryTest {
         Student student = new Student();
         student.setName("teste");
         this.studentRepository.save(student);
+        this.testEntityManager.flush();
     }
 
     @Test
@@ -101,6 +159,7 @@ public class StudentRepositoryTest {
         student.setName("teste");
         student.setEmail("teste");
         this.studentRepository.save(student);
+        this.testEntityManager.flush();
     }
 
 }
@@ -0,0 +1,48 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.SpringBootEssentialsApplication;
+import br.com.devdojo.demo.model.User;
+import br.com.devdojo.demo.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/*
+ * Starts the application on an in-memory H2 database for benchmarks that need real beans.
+ */
+final class BenchmarkApplication {
+
+    static final String USERNAME = "goku";
+    static final String PASSWORD = "teste";
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootEssentialsApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driver-class-name=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "rate-limit.enabled=false")
+                .properties(properties)
+                .run();
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        if (userRepository.findByUsername(USERNAME) == null) {
+            User user = new User();
+            user.setUsername(USERNAME);
+            user.setPassword(new BCryptPasswordEncoder().encode(PASSWORD));
+            user.setName("Goku");
+            user.setAdmin(true);
+            userRepository.save(user);
+        }
+        return context;
+    }
+
+}
@@ -0,0 +1,30 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.javaclient.LoadGenerator;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+/*
+ * mvn -Pload test [-Dload.args="rate=200 duration=60"] runs LoadGenerator against an
+ * application started on H2, or against an already running one when base-url is given. The leading
+ * dashes of the LoadGenerator options may be left out.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--base-url=") || arg.startsWith("base-url="))) {
+            LoadGenerator.main(args);
+            return;
+        }
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start()) {
+            String[] withBaseUrl = Arrays.copyOf(args, args.length + 1);
+            withBaseUrl[args.length] = "--base-url=http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadGenerator.main(withBaseUrl);
+        }
+    }
+
+}
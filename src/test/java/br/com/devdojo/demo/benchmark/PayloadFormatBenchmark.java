@@ -0,0 +1,116 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.model.PageableResponse;
+import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JSON against Smile for a page of students, written as the server writes a Page and read back as the
+ * client reads a PageableResponse. main() prints the encoded sizes before running the benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"5", "100", "1000"})
+    private int students;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper smile = smileMapper();
+
+    private final JavaType pageType = json.getTypeFactory().constructParametricType(PageableResponse.class, Student.class);
+
+    private Page<Student> page;
+
+    private byte[] jsonBytes;
+
+    private byte[] smileBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        page = page(students);
+        jsonBytes = json.writeValueAsBytes(page);
+        smileBytes = smile.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() throws IOException {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] smileWrite() throws IOException {
+        return smile.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageableResponse<Student> jsonRead() throws IOException {
+        return json.readValue(jsonBytes, pageType);
+    }
+
+    @Benchmark
+    public PageableResponse<Student> smileRead() throws IOException {
+        return smile.readValue(smileBytes, pageType);
+    }
+
+    private static Page<Student> page(int size) {
+        List<Student> content = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Student student = new Student(id, "Student number " + id, "student" + id + "@email.com");
+            student.setVersion(id % 7);
+            content.add(student);
+        }
+        return new PageImpl<>(content, new PageRequest(0, size, new Sort("name")), size * 10L);
+    }
+
+    private static ObjectMapper smileMapper() {
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        Jackson2ObjectMapperBuilder.json().configure(smile);
+        return smile;
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper smile = smileMapper();
+        System.out.println(String.format("%8s %12s %12s %8s", "students", "json bytes", "smile bytes", "ratio"));
+        for (int size : new int[]{5, 100, 1000}) {
+            Page<Student> page = page(size);
+            int jsonSize = json.writeValueAsBytes(page).length;
+            int smileSize = smile.writeValueAsBytes(page).length;
+            System.out.println(String.format("%8d %12d %12d %8.2f", size, jsonSize, smileSize, smileSize / (double) jsonSize));
+        }
+        new Runner(new OptionsBuilder().include(PayloadFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,66 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.config.RateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cost of RateLimiter.tryAcquire on the request path. The limits are set high enough
+ * that no call is ever rejected, so only the bookkeeping is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private RateLimiter limiter;
+
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        limiter = new RateLimiter(1_000_000_000d, Integer.MAX_VALUE / 2);
+        keys = new String[100_000];
+        for (int i = 0; i < keys.length; i++) keys[i] = "user:" + i;
+    }
+
+    @Benchmark
+    public long uncontendedSingleKey() {
+        return limiter.tryAcquire("user:goku");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long contendedSingleKey() {
+        return limiter.tryAcquire("user:goku");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long manyKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
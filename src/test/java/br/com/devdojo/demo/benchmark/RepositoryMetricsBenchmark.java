@@ -0,0 +1,77 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.config.LatencyHistogram;
+import br.com.devdojo.demo.config.RepositoryMetricsAspect;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Overhead of RepositoryMetricsAspect per repository call. The repository is a JDK proxy that returns null,
+ * like the Spring Data proxy minus the query, so plainRepository - measuredRepository is the aspect's cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryMetricsBenchmark {
+
+    private StudentRepository plain;
+    private StudentRepository measured;
+    private LatencyHistogram histogram;
+
+    @Setup
+    public void setup() {
+        plain = (StudentRepository) Proxy.newProxyInstance(StudentRepository.class.getClassLoader(),
+                new Class<?>[]{StudentRepository.class}, (proxy, method, args) -> null);
+        AspectJProxyFactory factory = new AspectJProxyFactory(plain);
+        factory.addAspect(new RepositoryMetricsAspect());
+        measured = factory.getProxy();
+        histogram = new LatencyHistogram();
+    }
+
+    @Benchmark
+    public Object plainRepository() {
+        return plain.findVersionById(1L);
+    }
+
+    @Benchmark
+    public Object measuredRepository() {
+        return measured.findVersionById(1L);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object measuredRepositoryContended() {
+        return measured.findVersionById(1L);
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RepositoryMetricsBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,151 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.config.JWTAuthenticationFilter;
+import br.com.devdojo.demo.config.JWTAuthorizationFilter;
+import br.com.devdojo.demo.config.JwtTokenCodec;
+import br.com.devdojo.demo.config.TokenCache;
+import br.com.devdojo.demo.config.TokenRevocationRegistry;
+import br.com.devdojo.demo.service.CustomUserDetailService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Per-request cost of the security hot path. Run with -prof gc (the benchmark profile does)
+ * to get the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityHotPathBenchmark {
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> {
+    };
+
+    private static final byte[] LOGIN_BODY = ("{\"username\":\"" + BenchmarkApplication.USERNAME
+            + "\",\"password\":\"" + BenchmarkApplication.PASSWORD + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailService userDetailService;
+    private JWTAuthenticationFilter authenticationFilter;
+    private JWTAuthorizationFilter cachedAuthorizationFilter;
+    private JWTAuthorizationFilter uncachedAuthorizationFilter;
+    private Filter securityFilterChain;
+    private String bearerToken;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkApplication.start();
+        userDetailService = context.getBean(CustomUserDetailService.class);
+        JwtTokenCodec codec = context.getBean(JwtTokenCodec.class);
+        TokenRevocationRegistry revocationRegistry = context.getBean(TokenRevocationRegistry.class);
+
+        // The password check is stubbed so only token issuance is measured, not BCrypt.
+        UserDetails principal = new User(BenchmarkApplication.USERNAME, "", AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+        AuthenticationManager authenticated = authentication ->
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        authenticationFilter = new JWTAuthenticationFilter(authenticated, codec, false, 1);
+
+        TokenCache noCache = new TokenCache();
+        ReflectionTestUtils.setField(noCache, "ttl", 0L);
+        cachedAuthorizationFilter = new JWTAuthorizationFilter(authenticated, userDetailService, codec,
+                context.getBean(TokenCache.class), revocationRegistry, false);
+        uncachedAuthorizationFilter = new JWTAuthorizationFilter(authenticated, userDetailService, codec,
+                noCache, revocationRegistry, false);
+        securityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+
+        MockHttpServletResponse response = login();
+        bearerToken = response.getHeader("Authorization");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse issueToken() throws Exception {
+        return login();
+    }
+
+    @Benchmark
+    public Object verifyTokenCached() throws Exception {
+        return authorize(cachedAuthorizationFilter);
+    }
+
+    @Benchmark
+    public Object verifyTokenUncached() throws Exception {
+        return authorize(uncachedAuthorizationFilter);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailService.loadUserByUsername(BenchmarkApplication.USERNAME);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse securityFilterChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/protected/students");
+        request.setServletPath("/v1/protected/students");
+        request.addHeader("Authorization", bearerToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        securityFilterChain.doFilter(request, response, NOOP_CHAIN);
+        return response;
+    }
+
+    private MockHttpServletResponse login() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setContent(LOGIN_BODY);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticationFilter.doFilter(request, response, NOOP_CHAIN);
+        return response;
+    }
+
+    private Object authorize(Filter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/protected/students");
+        request.addHeader("Authorization", bearerToken);
+        filter.doFilter(request, new MockHttpServletResponse(), NOOP_CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SecurityHotPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+}
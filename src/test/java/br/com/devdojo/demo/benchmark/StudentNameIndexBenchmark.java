@@ -0,0 +1,117 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.service.StudentNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Trigram index lookups against the lower(name) like '%x%' query the repository generates,
+ * on an H2 table holding the same rows. Both sides return matching ids only.
+ * The 10M rows case keeps both copies in memory, hence the larger heap on the fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StudentNameIndexBenchmark {
+
+    private static final String[] FIRST = {"Ana", "Bruno", "Carla", "Diego", "Eduarda", "Felipe", "Gabriela",
+            "Henrique", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Patrícia", "Rafael",
+            "Sabrina", "Thiago", "Vanessa", "William"};
+    private static final String[] LAST = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira",
+            "Alves", "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes"};
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    @Param({"silva", "ique", "rafael carv"})
+    private String query;
+
+    private StudentNameIndex index;
+    private Connection connection;
+    private PreparedStatement like;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        index = new StudentNameIndex();
+        ReflectionTestUtils.setField(index, "enabled", true);
+        connection = DriverManager.getConnection("jdbc:h2:mem:students;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table student (id bigint primary key, name varchar(255))");
+        }
+        connection.setAutoCommit(false);
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement("insert into student (id, name) values (?, ?)")) {
+            for (long id = 1; id <= rows; id++) {
+                String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                        + " " + LAST[random.nextInt(LAST.length)] + " " + Long.toString(id, 36);
+                index.index(new Student(id, name, "student" + id + "@email.com"));
+                insert.setLong(1, id);
+                insert.setString(2, name);
+                insert.addBatch();
+                if (id % 10000 == 0) insert.executeBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        ReflectionTestUtils.setField(index, "ready", true);
+        like = connection.prepareStatement("select id from student where lower(name) like ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> trigramIndex() {
+        return index.findIds(query);
+    }
+
+    @Benchmark
+    public List<Long> likeQuery() throws SQLException {
+        like.setString(1, "%" + query + "%");
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = like.executeQuery()) {
+            while (resultSet.next()) ids.add(resultSet.getLong(1));
+        }
+        return ids;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StudentNameIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,79 @@
+package br.com.devdojo.demo.benchmark;
+
+import br.com.devdojo.demo.config.JwtTokenCodec;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * JwtTokenCodec against the inline jjwt calls it replaced in the JWT filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenCodecBenchmark {
+
+    private static final String SECRET = "spring";
+
+    private JwtTokenCodec codec;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        codec = new JwtTokenCodec("", "");
+        token = jjwtIssue();
+    }
+
+    @Benchmark
+    public String jjwtIssue() {
+        return Jwts.builder()
+                .setSubject("goku")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000L))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String codecIssue() {
+        return codec.encode(Jwts.claims()
+                .setSubject("goku")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000L)));
+    }
+
+    @Benchmark
+    public Claims jjwtVerify() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims codecVerify() {
+        return codec.decode(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,97 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.service.CustomUserDetailService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/*
+ * The pool is filled by parking tasks on its single thread and its single queue slot, so the next password
+ * check finds no capacity left.
+ */
+public class BoundedPasswordEncoderTest {
+
+    private final BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(passwordEncoder, "threads", 1);
+        ReflectionTestUtils.setField(passwordEncoder, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordEncoder, "timeout", 5000L);
+        passwordEncoder.start();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        passwordEncoder.stop();
+    }
+
+    @Test(expected = BoundedPasswordEncoder.LoginCapacityExceededException.class)
+    public void matchesWhenThePoolIsFullShouldBeRejectedImmediately() throws InterruptedException {
+        fillPool();
+        passwordEncoder.matches("teste", "$2a$10$invalid");
+    }
+
+    @Test
+    public void loginWhenThePoolIsFullShouldReturnStatusCode503WithRetryAfter() throws Exception {
+        CustomUserDetailService customUserDetailService = mock(CustomUserDetailService.class);
+        given(customUserDetailService.loadUserByUsername("goku"))
+                .willReturn(new User("goku", "$2a$10$invalid", AuthorityUtils.createAuthorityList("ROLE_USER")));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(customUserDetailService);
+        provider.setPasswordEncoder(passwordEncoder);
+        JWTAuthenticationFilter filter = new JWTAuthenticationFilter(new ProviderManager(Collections.singletonList(provider)),
+                new JwtTokenCodec("", ""), false, 7);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setContent("{\"username\":\"goku\",\"password\":\"teste\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fillPool();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("7");
+        assertThat(passwordEncoder.stats()).containsEntry("rejected", 1L);
+    }
+
+    private void fillPool() throws InterruptedException {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(passwordEncoder, "executor");
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            awaitRelease();
+        });
+        running.await();
+        executor.execute(this::awaitRelease);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
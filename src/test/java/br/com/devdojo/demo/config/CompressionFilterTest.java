@@ -0,0 +1,209 @@
+package br.com.devdojo.demo.config;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompressionFilterTest {
+
+    private static final String LARGE = json(200);
+    private static final String SMALL = json(2);
+
+    private static final CompressionFilter LIMITED = new CompressionFilter(1024, MediaType.parseMediaTypes("application/json"),
+            6, true, 100, Collections.singleton("/v1/admin/students/import"));
+
+    private final CompressionFilter filter = new CompressionFilter(1024,
+            MediaType.parseMediaTypes("application/json,application/x-ndjson"), 6, true, 1024 * 1024, Collections.emptySet());
+
+    @Test
+    public void largeResponsesShouldBeGzippedWhenTheClientAcceptsIt() throws Exception {
+        MockHttpServletResponse response = perform(get("gzip, deflate"), LARGE, "application/json;charset=UTF-8");
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getContentAsByteArray().length).isLessThan(LARGE.length() / 4);
+        assertThat(inflate(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).isEqualTo(LARGE);
+    }
+
+    @Test
+    public void deflateShouldOnlyBeUsedWhenGzipIsNotAccepted() throws Exception {
+        MockHttpServletResponse response = perform(get("deflate, gzip;q=0"), LARGE, "application/json");
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("deflate");
+        assertThat(inflate(new InflaterInputStream(new ByteArrayInputStream(response.getContentAsByteArray())))).isEqualTo(LARGE);
+    }
+
+    @Test
+    public void responsesBelowTheThresholdShouldBeSentAsTheyAreWithTheirLength() throws Exception {
+        MockHttpServletResponse response = perform(get("gzip"), SMALL, "application/json");
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentLength()).isEqualTo(SMALL.length());
+        assertThat(response.getContentAsString()).isEqualTo(SMALL);
+    }
+
+    @Test
+    public void responsesShouldNotBeCompressedWithoutAcceptEncodingOrForOtherMediaTypes() throws Exception {
+        assertThat(perform(get(null), LARGE, "application/json").getContentAsString()).isEqualTo(LARGE);
+        MockHttpServletResponse image = perform(get("gzip"), LARGE, "image/png");
+        assertThat(image.getHeader("Content-Encoding")).isNull();
+        assertThat(image.getContentAsString()).isEqualTo(LARGE);
+    }
+
+    @Test
+    public void strongETagsShouldOnlyBeWeakenedWhenTheBodyIsCompressed() throws Exception {
+        assertThat(performWithETag(get("gzip"), 200, LARGE).getHeader("ETag")).isEqualTo("W/\"7\"");
+        assertThat(performWithETag(get("gzip"), 200, SMALL).getHeader("ETag")).isEqualTo("\"7\"");
+        assertThat(performWithETag(get(null), 200, LARGE).getHeader("ETag")).isEqualTo("\"7\"");
+    }
+
+    @Test
+    public void notModifiedResponsesShouldRepeatTheWeakenedETag() throws Exception {
+        MockHttpServletResponse response = performWithETag(get("gzip"), 304, "");
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader("ETag")).isEqualTo("W/\"7\"");
+    }
+
+    @Test
+    public void gzippedAdminRequestBodiesShouldBeInflatedForTheHandler() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/admin/students");
+        request.addHeader("Content-Encoding", "gzip");
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(LARGE.getBytes(StandardCharsets.UTF_8));
+        }
+        request.setContent(compressed.toByteArray());
+        StringBuilder received = new StringBuilder();
+        Servlet handler = new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                assertThat(req.getHeader("Content-Encoding")).isNull();
+                received.append(StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8));
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(handler));
+
+        assertThat(received.toString()).isEqualTo(LARGE);
+    }
+
+    @Test
+    public void compressedBodiesOutsideTheAdminEndpointsShouldBeRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/protected/students");
+        request.addHeader("Content-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(415);
+    }
+
+    @Test
+    public void inflatedBodiesLargerThanTheLimitShouldFailTheRead() throws Exception {
+        StringBuilder error = new StringBuilder();
+        readDeflatedBody(LIMITED, "/v1/admin/students", error);
+
+        assertThat(error.toString()).contains("larger than 100 bytes");
+    }
+
+    @Test
+    public void inflatedBodiesOfStreamingPathsShouldNotBeLimited() throws Exception {
+        StringBuilder error = new StringBuilder();
+        String received = readDeflatedBody(LIMITED, "/v1/admin/students/import", error);
+
+        assertThat(error.toString()).isEmpty();
+        assertThat(received).isEqualTo(LARGE);
+    }
+
+    private static String readDeflatedBody(CompressionFilter filter, String uri, StringBuilder error) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader("Content-Encoding", "deflate");
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed)) {
+            deflate.write(LARGE.getBytes(StandardCharsets.UTF_8));
+        }
+        request.setContent(compressed.toByteArray());
+        StringBuilder received = new StringBuilder();
+        Servlet handler = new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest req, HttpServletResponse resp) {
+                try {
+                    received.append(StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    error.append(e.getMessage());
+                }
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(handler));
+        return received.toString();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, String body, String contentType) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Servlet handler = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                resp.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+                resp.getOutputStream().flush();
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(handler));
+        return response;
+    }
+
+    private MockHttpServletResponse performWithETag(MockHttpServletRequest request, int status, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Servlet handler = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setStatus(status);
+                resp.setHeader("ETag", "\"7\"");
+                if (body.isEmpty()) return;
+                resp.setContentType("application/json");
+                resp.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(handler));
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/protected/students");
+        if (acceptEncoding != null) request.addHeader("Accept-Encoding", acceptEncoding);
+        return request;
+    }
+
+    private static String inflate(InputStream in) throws IOException {
+        return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+    }
+
+    private static String json(int students) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < students; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"id\":").append(i).append(",\"name\":\"Student ").append(i).append("\",\"email\":\"student").append(i).append("@email.com\"}");
+        }
+        return json.append(']').toString();
+    }
+
+}
@@ -0,0 +1,153 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.service.CustomUserDetailService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Wires the whole application over three H2 databases. Hibernate only creates the schema on the primary, which
+ * is then copied to the replicas; each database holds student 1 under its own name, so a response tells which
+ * node served it. The second-level cache is evicted before every request that must reach a database.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "datasource.replica.urls=jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:routing-replica-2;DB_CLOSE_DELAY=-1",
+        "datasource.read-your-writes-ms=60000",
+        "student.name-index.rebuild-on-startup=false"})
+public class DataSourceRoutingConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CustomUserDetailService customUserDetailService;
+
+    private final JdbcTemplate primary = node("routing-primary");
+    private final List<JdbcTemplate> replicas = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        List<String> schema = primary.queryForList("script nodata", String.class);
+        for (String name : new String[]{"routing-replica-1", "routing-replica-2"}) {
+            JdbcTemplate replica = node(name);
+            replica.execute("drop all objects");
+            schema.forEach(replica::execute);
+            insertStudent(replica, name, 7L);
+            replica.update("insert into user (id, version, username, password, name, admin) values (1, 0, 'goku', 'x', 'Goku', false)");
+            replicas.add(replica);
+        }
+        insertStudent(primary, "routing-primary", 3L);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @After
+    public void tearDown() {
+        primary.update("delete from student");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void contextShouldRouteThroughALazyProxyUnderTheJpaTransactionManager() {
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+        assertThat(((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource()).isInstanceOf(ReplicaRoutingDataSource.class);
+        assertThat(transactionManager).isInstanceOf(JpaTransactionManager.class);
+    }
+
+    @Test
+    @WithMockUser(username = "reader", roles = {"USER"})
+    public void getStudentByIdShouldBeServedByAReplica() throws Exception {
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(startsWith("routing-replica-")));
+    }
+
+    @Test
+    public void findVersionByIdOutsideATransactionShouldBeServedByAReplica() {
+        assertThat(studentRepository.findVersionById(1L)).isEqualTo(7L);
+    }
+
+    @Test
+    public void loadUserByUsernameShouldBeServedByAReplica() {
+        assertThat(customUserDetailService.loadUserByUsername("goku").getUsername()).isEqualTo("goku");
+    }
+
+    @Test
+    @WithMockUser(username = "writer", roles = {"USER", "ADMIN"})
+    public void updateShouldWriteToThePrimaryAndPinTheWritersReadsToIt() throws Exception {
+        mockMvc.perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":1,\"name\":\"Kakarotto\",\"email\":\"goku@email.com\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(primary.queryForObject("select name from student where id = 1", String.class)).isEqualTo("Kakarotto");
+        for (JdbcTemplate replica : replicas)
+            assertThat(replica.queryForObject("select name from student where id = 1", String.class)).startsWith("routing-replica-");
+
+        entityManagerFactory.getCache().evictAll();
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Kakarotto"));
+
+        entityManagerFactory.getCache().evictAll();
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L).with(user("other").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(startsWith("routing-replica-")));
+    }
+
+    private static void insertStudent(JdbcTemplate node, String name, long version) {
+        node.update("insert into student (id, version, name, email) values (1, ?, ?, 'goku@email.com')", version, name);
+    }
+
+    private static JdbcTemplate node(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+}
@@ -0,0 +1,65 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * The MySQL dialect of application.properties keeps the ids in the hibernate_sequence table, as in production.
+ * The context is not shared, so no block of ids has been reserved before the rows below are written.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(IdSequenceInitializer.class)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+public class IdSequenceInitializerTest {
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @After
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void initializeWhenIdsWereGeneratedByIdentityShouldMoveTheSequencePastThem() {
+        jdbcTemplate.update("insert into student (id, name, email, version) values (1000, 'Goku', 'goku@email.com', 0)");
+
+        idSequenceInitializer.initialize();
+        Student student = studentRepository.save(new Student("Vegeta", "vegeta@email.com"));
+
+        assertThat(student.getId()).isGreaterThan(1000L);
+        assertThat(jdbcTemplate.queryForObject("select min(next_val) from hibernate_sequence", Long.class)).isGreaterThan(1001L);
+    }
+
+    @Test
+    public void initializeWhenTheSequenceIsAheadShouldLeaveItAlone() {
+        jdbcTemplate.update("update hibernate_sequence set next_val = 5000");
+        jdbcTemplate.update("insert into student (id, name, email, version) values (1000, 'Goku', 'goku@email.com', 0)");
+
+        idSequenceInitializer.initialize();
+
+        assertThat(jdbcTemplate.queryForObject("select min(next_val) from hibernate_sequence", Long.class)).isEqualTo(5000L);
+    }
+
+}
@@ -0,0 +1,201 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.repository.UserRepository;
+import br.com.devdojo.demo.service.CustomUserDetailService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static br.com.devdojo.demo.config.SecurityConstants.HEADER_STRING;
+import static br.com.devdojo.demo.config.SecurityConstants.ROLES_CLAIM;
+import static br.com.devdojo.demo.config.SecurityConstants.TOKEN_PREFIX;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class JWTAuthorizationFilterTest {
+
+    private final JwtTokenCodec codec = new JwtTokenCodec("", "");
+
+    private final CustomUserDetailService customUserDetailService = mock(CustomUserDetailService.class);
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private TokenCache tokenCache;
+
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Before
+    public void setup() {
+        tokenCache = new TokenCache();
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 100);
+        ReflectionTestUtils.setField(tokenCache, "ttl", 60000L);
+        revocationRegistry = new TokenRevocationRegistry();
+        ReflectionTestUtils.setField(revocationRegistry, "userRepository", userRepository);
+        ReflectionTestUtils.setField(revocationRegistry, "tokenCache", tokenCache);
+        given(customUserDetailService.loadUserByUsername("goku"))
+                .willReturn(new User("goku", "", AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilterWhenTokenIsValidShouldAuthenticateTheRequest() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, codec.encode(claims("goku", 60000L)), chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("goku");
+    }
+
+    @Test
+    public void doFilterWhenTokenIsExpiredShouldReturnStatusCode401WithBearerChallenge() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, codec.encode(claims("goku", -1000L)), chain);
+
+        assertUnauthorized(response, chain);
+    }
+
+    @Test
+    public void doFilterWhenKeyIdIsUnknownShouldReturnStatusCode401WithBearerChallenge() throws Exception {
+        String token = new JwtTokenCodec("k2:c2Vjb25kLXNlY3JldA==", "k2").encode(claims("goku", 60000L));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, token, chain);
+
+        assertUnauthorized(response, chain);
+    }
+
+    @Test
+    public void doFilterWhenTokenIsMalformedShouldReturnStatusCode401WithBearerChallenge() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, "123123123123", chain);
+
+        assertUnauthorized(response, chain);
+    }
+
+    @Test
+    public void doFilterWhenHeaderIsNotBearerShouldContinueAnonymously() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HEADER_STRING, "Basic Z29rdTp0ZXN0ZQ==");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(false).doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    public void doFilterWhenTokenWasIssuedInASecondBeforeTheRevocationShouldReturnStatusCode401() throws Exception {
+        Claims claims = claims("goku", 60000L);
+        revoke("goku", claims.getIssuedAt().getTime() + 1000L);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, codec.encode(claims), chain);
+
+        assertUnauthorized(response, chain);
+    }
+
+    @Test
+    public void doFilterWhenTokenWasIssuedInTheSameSecondAsTheRevocationShouldAuthenticateTheRequest() throws Exception {
+        Claims claims = claims("goku", 60000L);
+        // iat is encoded in whole seconds, so it reads as earlier than the revocation in milliseconds
+        revoke("goku", claims.getIssuedAt().getTime());
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, codec.encode(claims), chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    public void doFilterWhenTokenWasIssuedAfterTheRevocationShouldAuthenticateTheRequest() throws Exception {
+        revoke("goku", System.currentTimeMillis() - 5000L);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, codec.encode(claims("goku", 60000L)), chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    public void refreshWhenTheUserIsRevokedShouldDropItsCachedAuthentications() throws Exception {
+        String token = codec.encode(claims("goku", 60000L));
+        assertThat(filter(false, token, new MockFilterChain()).getStatus()).isEqualTo(200);
+        SecurityContextHolder.clearContext();
+
+        revoke("goku", System.currentTimeMillis() + 1000L);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(false, token, chain);
+
+        assertUnauthorized(response, chain);
+    }
+
+    @Test
+    public void doFilterWhenStatelessShouldTrustTheSignedRolesWithoutLoadingTheUser() throws Exception {
+        Claims claims = claims("vegeta", 60000L);
+        claims.put(ROLES_CLAIM, "USER,ADMIN");
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(true, codec.encode(claims), chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                .extracting("authority").containsExactly("ROLE_USER", "ROLE_ADMIN");
+        verify(customUserDetailService, never()).loadUserByUsername(anyString());
+    }
+
+    private void revoke(String username, long revokedAt) {
+        given(userRepository.findRevokedSince(anyLong()))
+                .willReturn(Collections.singletonList(new Object[]{username, revokedAt}));
+        revocationRegistry.refresh();
+    }
+
+    private JWTAuthorizationFilter filter(boolean stateless) {
+        return new JWTAuthorizationFilter(mock(AuthenticationManager.class), customUserDetailService, codec, tokenCache,
+                revocationRegistry, stateless);
+    }
+
+    private MockHttpServletResponse filter(boolean stateless, String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter(stateless).doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void assertUnauthorized(MockHttpServletResponse response, MockFilterChain chain) {
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getHeader("WWW-Authenticate")).startsWith("Bearer");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private static Claims claims(String subject, long ttl) {
+        return Jwts.claims()
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ttl));
+    }
+
+}
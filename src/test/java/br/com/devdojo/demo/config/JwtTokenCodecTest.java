@@ -0,0 +1,68 @@
+package br.com.devdojo.demo.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static br.com.devdojo.demo.config.SecurityConstants.SECRET;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JwtTokenCodecTest {
+
+    private final JwtTokenCodec codec = new JwtTokenCodec("", "");
+
+    @Test
+    public void decodeShouldAcceptTokensIssuedByJjwt() {
+        String token = Jwts.builder()
+                .setSubject("goku")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000L))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        assertThat(codec.decode(token).getSubject()).isEqualTo("goku");
+    }
+
+    @Test
+    public void encodeShouldProduceTokensJjwtCanVerify() {
+        String token = codec.encode(claims("vegeta", 60000L));
+        Claims claims = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+        assertThat(claims.getSubject()).isEqualTo("vegeta");
+    }
+
+    @Test(expected = ExpiredJwtException.class)
+    public void decodeWhenTokenIsExpiredShouldThrowExpiredJwtException() {
+        codec.decode(codec.encode(claims("goku", -1000L)));
+    }
+
+    @Test(expected = SignatureException.class)
+    public void decodeWhenSignatureIsTamperedShouldThrowSignatureException() {
+        String token = codec.encode(claims("goku", 60000L));
+        codec.decode(token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA"));
+    }
+
+    @Test
+    public void decodeShouldAcceptTokensOfPreviousAndRotatedKeys() {
+        String oldToken = codec.encode(claims("goku", 60000L));
+        JwtTokenCodec rotated = new JwtTokenCodec("k2:c2Vjb25kLXNlY3JldA==", "k2");
+        String newToken = rotated.encode(claims("vegeta", 60000L));
+        assertThat(rotated.decode(oldToken).getSubject()).isEqualTo("goku");
+        assertThat(rotated.decode(newToken).getSubject()).isEqualTo("vegeta");
+    }
+
+    @Test(expected = SignatureException.class)
+    public void decodeWhenKeyIdIsUnknownShouldThrowSignatureException() {
+        String token = new JwtTokenCodec("k2:c2Vjb25kLXNlY3JldA==", "k2").encode(claims("goku", 60000L));
+        codec.decode(token);
+    }
+
+    private static Claims claims(String subject, long ttl) {
+        return Jwts.claims()
+                .setSubject(subject)
+                .setExpiration(new Date(System.currentTimeMillis() + ttl));
+    }
+
+}
@@ -0,0 +1,57 @@
+package br.com.devdojo.demo.config;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesShouldBeWithinThreePercentOfTheRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) histogram.record(micros * 1000);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+
+        assertThat(snapshot.getCount()).isEqualTo(100_000);
+        assertThat(snapshot.getMax()).isEqualTo(100_000_000L);
+        assertThat((double) snapshot.percentile(50)).isCloseTo(50_000_000d, within(1_500_000d));
+        assertThat((double) snapshot.percentile(99)).isCloseTo(99_000_000d, within(2_970_000d));
+        assertThat(snapshot.percentile(99.9)).isLessThanOrEqualTo(snapshot.getMax());
+    }
+
+    @Test
+    public void bucketsShouldCoverEveryValueWithoutGaps() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.index(value);
+            assertThat(index).isBetween(previous, previous + 1);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            previous = index;
+        }
+    }
+
+    @Test
+    public void resettingSnapshotShouldStartANewInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.record(2000);
+
+        assertThat(histogram.snapshot(true).getCount()).isEqualTo(2);
+        LatencyHistogram.Snapshot next = histogram.snapshot(true);
+        assertThat(next.getCount()).isZero();
+        assertThat(next.getMax()).isZero();
+    }
+
+    @Test
+    public void valuesAboveTheRangeShouldBeClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        assertThat(snapshot.getCount()).isEqualTo(2);
+        assertThat(snapshot.percentile(50)).isZero();
+        assertThat(snapshot.getMax()).isEqualTo((1L << 36) - 1);
+    }
+
+}
@@ -0,0 +1,117 @@
+package br.com.devdojo.demo.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.Filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Every limiter allows a burst of two and refills one permit per second, so the third request in a row is refused.
+ */
+public class RateLimitFilterTest {
+
+    private final RateLimits rateLimits = new RateLimits();
+
+    @Before
+    public void setup() {
+        for (String limit : new String[]{"protected", "admin", "login"}) {
+            ReflectionTestUtils.setField(rateLimits, limit + "Rate", 1d);
+            ReflectionTestUtils.setField(rateLimits, limit + "Burst", 2);
+        }
+        rateLimits.init();
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void authenticatedRequestsShouldBeLimitedPerPrincipal() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimits);
+        authenticate("goku");
+        assertThat(perform(filter, "GET", "/v1/protected/students", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "GET", "/v1/protected/students", "10.0.0.2").getStatus()).isEqualTo(200);
+
+        assertTooManyRequests(perform(filter, "GET", "/v1/protected/students", "10.0.0.3"));
+        authenticate("vegeta");
+        assertThat(perform(filter, "GET", "/v1/protected/students", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(rateLimits.stats()).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    public void anonymousRequestsShouldBeLimitedPerRemoteAddress() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimits);
+        perform(filter, "GET", "/v1/protected/students", "10.0.0.1");
+        perform(filter, "GET", "/v1/protected/students", "10.0.0.1");
+
+        assertTooManyRequests(perform(filter, "GET", "/v1/protected/students", "10.0.0.1"));
+        assertThat(perform(filter, "GET", "/v1/protected/students", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void adminAndProtectedRequestsShouldUseSeparateLimiters() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimits);
+        authenticate("goku");
+        perform(filter, "GET", "/v1/protected/students", "10.0.0.1");
+        perform(filter, "GET", "/v1/protected/students", "10.0.0.1");
+
+        assertThat(perform(filter, "DELETE", "/v1/admin/students/1", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "GET", "/swagger-ui.html", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void loginShouldBeLimitedPerRemoteAddressEvenWhenAPrincipalIsKnown() throws Exception {
+        LoginRateLimitFilter filter = new LoginRateLimitFilter(rateLimits);
+        authenticate("goku");
+        perform(filter, "POST", "/login", "10.0.0.1");
+        authenticate("vegeta");
+        perform(filter, "POST", "/login", "10.0.0.1");
+
+        assertTooManyRequests(perform(filter, "POST", "/login", "10.0.0.1"));
+        assertThat(perform(filter, "POST", "/login", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "GET", "/v1/protected/students", "10.0.0.1").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void evictIdleShouldForgetClientsWhoseBucketsHaveRefilled() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimits);
+        perform(filter, "GET", "/v1/protected/students", "10.0.0.1");
+
+        rateLimits.evictIdle();
+        assertThat(rateLimits.stats()).containsEntry("protectedKeys", 1).containsEntry("evicted", 0L);
+        Thread.sleep(1100);
+        rateLimits.evictIdle();
+        assertThat(rateLimits.stats()).containsEntry("protectedKeys", 0).containsEntry("evicted", 1L);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    private static MockHttpServletResponse perform(Filter filter, String method, String path, String remoteAddress) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddress);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static void assertTooManyRequests(MockHttpServletResponse response) {
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+}
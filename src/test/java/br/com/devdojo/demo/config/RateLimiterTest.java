@@ -0,0 +1,57 @@
+package br.com.devdojo.demo.config;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    @Test
+    public void tryAcquireShouldAllowTheBurstAndThenReturnTheWaitForTheNextPermit() {
+        RateLimiter limiter = new RateLimiter(1, 3);
+
+        for (int i = 0; i < 3; i++) assertThat(limiter.tryAcquire("goku")).isZero();
+        long wait = limiter.tryAcquire("goku");
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void tryAcquireShouldRefillOnePermitPerEmissionInterval() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(100, 1);
+
+        assertThat(limiter.tryAcquire("goku")).isZero();
+        assertThat(limiter.tryAcquire("goku")).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+        Thread.sleep(20);
+        assertThat(limiter.tryAcquire("goku")).isZero();
+    }
+
+    @Test
+    public void tryAcquireShouldKeepOneBucketPerKey() {
+        RateLimiter limiter = new RateLimiter(1, 1);
+
+        assertThat(limiter.tryAcquire("goku")).isZero();
+        assertThat(limiter.tryAcquire("goku")).isPositive();
+        assertThat(limiter.tryAcquire("vegeta")).isZero();
+    }
+
+    @Test
+    public void evictIdleShouldOnlyDropBucketsThatHaveRefilled() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(100, 1);
+        limiter.tryAcquire("goku");
+
+        assertThat(limiter.evictIdle()).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+        Thread.sleep(20);
+        assertThat(limiter.evictIdle()).isEqualTo(1);
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorWhenBurstIsNotPositiveShouldThrowIllegalArgumentException() {
+        new RateLimiter(1, 0);
+    }
+
+}
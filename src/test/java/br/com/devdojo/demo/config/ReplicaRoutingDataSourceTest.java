@@ -0,0 +1,186 @@
+package br.com.devdojo.demo.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * Every database answers "select name from node" with its own name, so each query tells where it was routed.
+ * Replication is simulated by copying the student table from the primary to the replicas on demand.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private final List<JdbcTemplate> databases = new ArrayList<>();
+    private JdbcTemplate primary;
+    private JdbcTemplate replica1;
+    private JdbcTemplate replica2;
+
+    @Before
+    public void setup() {
+        primary = database("primary");
+        replica1 = database("replica-1");
+        replica2 = database("replica-2");
+    }
+
+    @After
+    public void tearDown() {
+        ReplicaRoutingDataSource.unpin();
+        databases.forEach(database -> database.execute("drop all objects"));
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUseAReplica() {
+        Routing routing = routing(replicas(replica1, replica2));
+        assertThat(routing.read()).startsWith("replica-");
+    }
+
+    @Test
+    public void readWriteTransactionShouldUseThePrimary() {
+        Routing routing = routing(replicas(replica1, replica2));
+        assertThat(routing.write()).isEqualTo("primary");
+    }
+
+    @Test
+    public void readOnlyTransactionsShouldRoundRobinOverTheReplicas() {
+        Routing routing = routing(replicas(replica1, replica2));
+        assertThat(new String[]{routing.read(), routing.read(), routing.read(), routing.read()})
+                .containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    @Test
+    public void pinnedThreadShouldReadFromThePrimary() {
+        Routing routing = routing(replicas(replica1, replica2));
+        ReplicaRoutingDataSource.pinToPrimary();
+        assertThat(routing.read()).isEqualTo("primary");
+        ReplicaRoutingDataSource.unpin();
+        assertThat(routing.read()).startsWith("replica-");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void failingReplicaShouldBeSkippedAndReportedUnhealthy() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", new BrokenDataSource());
+        replicas.put("replica-2", replica2.getDataSource());
+        Routing routing = routing(replicas);
+
+        assertThat(new String[]{routing.read(), routing.read(), routing.read()})
+                .containsExactly("replica-2", "replica-2", "replica-2");
+        Map<String, Object> stats = routing.dataSource.stats();
+        assertThat((Map<String, Object>) stats.get("replica-1")).containsEntry("healthy", false).containsEntry("failures", 1L);
+        assertThat((Map<String, Object>) stats.get("replica-2")).containsEntry("healthy", true);
+    }
+
+    @Test
+    public void readsShouldFallBackToThePrimaryWhenNoReplicaIsUsable() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", new BrokenDataSource());
+        Routing routing = routing(replicas);
+
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(routing.dataSource.stats()).containsEntry("fallbacksToPrimary", 1L);
+    }
+
+    @Test
+    public void pinningShouldLetAWriterReadItsOwnWriteBeforeReplication() {
+        Routing routing = routing(replicas(replica1));
+        routing.transactions.execute(status -> routing.jdbc.update("insert into student (id, name) values (1, 'Goku')"));
+
+        assertThat(routing.countStudents()).isZero();
+        ReplicaRoutingDataSource.pinToPrimary();
+        assertThat(routing.countStudents()).isEqualTo(1);
+        ReplicaRoutingDataSource.unpin();
+
+        replicate();
+        assertThat(routing.countStudents()).isEqualTo(1);
+    }
+
+    private JdbcTemplate database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(32))");
+        jdbc.update("insert into node (name) values (?)", name);
+        jdbc.execute("create table student (id bigint primary key, name varchar(255))");
+        databases.add(jdbc);
+        return jdbc;
+    }
+
+    private void replicate() {
+        for (JdbcTemplate replica : new JdbcTemplate[]{replica1, replica2}) {
+            replica.update("delete from student");
+            primary.query("select id, name from student", row -> {
+                replica.update("insert into student (id, name) values (?, ?)", row.getLong(1), row.getString(2));
+            });
+        }
+    }
+
+    private static Map<String, DataSource> replicas(JdbcTemplate... replicas) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.length; i++) dataSources.put("replica-" + (i + 1), replicas[i].getDataSource());
+        return dataSources;
+    }
+
+    private Routing routing(Map<String, DataSource> replicas) {
+        return new Routing(new ReplicaRoutingDataSource(primary.getDataSource(), replicas, 60000));
+    }
+
+    private static class Routing {
+        private final ReplicaRoutingDataSource dataSource;
+        private final JdbcTemplate jdbc;
+        private final TransactionTemplate transactions;
+        private final TransactionTemplate readOnlyTransactions;
+
+        private Routing(ReplicaRoutingDataSource dataSource) {
+            this.dataSource = dataSource;
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(proxy);
+            this.jdbc = new JdbcTemplate(proxy);
+            this.transactions = new TransactionTemplate(transactionManager);
+            this.readOnlyTransactions = new TransactionTemplate(transactionManager);
+            this.readOnlyTransactions.setReadOnly(true);
+        }
+
+        private String read() {
+            return readOnlyTransactions.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        }
+
+        private String write() {
+            return transactions.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        }
+
+        private Integer countStudents() {
+            return readOnlyTransactions.execute(status -> jdbc.queryForObject("select count(*) from student", Integer.class));
+        }
+    }
+
+    private static class BrokenDataSource extends AbstractDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw new SQLException("Connection refused");
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Connection refused");
+        }
+    }
+
+}
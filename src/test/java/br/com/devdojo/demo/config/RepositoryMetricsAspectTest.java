@@ -0,0 +1,54 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class RepositoryMetricsAspectTest {
+
+    private final RepositoryMetricsAspect aspect = new RepositoryMetricsAspect();
+    private StudentRepository repository;
+    private StudentRepository proxy;
+
+    @Before
+    public void setup() {
+        repository = mock(StudentRepository.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(repository);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void callsShouldBeRecordedPerMethodAndOutcome() {
+        given(repository.findOne(1L)).willReturn(new Student(1L, "Goku", "goku@email.com"));
+        given(repository.findOne(2L)).willThrow(new IllegalStateException("Database down"));
+
+        proxy.findOne(1L);
+        proxy.findOne(1L);
+        assertThatThrownBy(() -> proxy.findOne(2L)).isInstanceOf(IllegalStateException.class);
+
+        Map<String, Object> outcomes = (Map<String, Object>) aspect.stats(false).get("StudentRepository.findOne(Serializable)");
+        assertThat((Map<String, Object>) outcomes.get("ok")).containsEntry("count", 2L);
+        assertThat((Map<String, Object>) outcomes.get("error")).containsEntry("count", 1L);
+    }
+
+    @Test
+    public void intervalViewShouldResetWhileCumulativeViewKeepsCounting() {
+        proxy.findVersionById(1L);
+
+        assertThat(aspect.stats(true)).containsKey("StudentRepository.findVersionById(Long)");
+        assertThat(aspect.stats(true)).isEmpty();
+        assertThat(aspect.stats(false)).containsKey("StudentRepository.findVersionById(Long)");
+    }
+
+}
@@ -0,0 +1,71 @@
+package br.com.devdojo.demo.config;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RequestMetricsFilterTest {
+
+    private final RequestMetrics requestMetrics = new RequestMetrics();
+
+    @Test
+    public void serverTimingHeaderShouldListTheRecordedPhasesBeforeTheBodyIsWritten() throws Exception {
+        MockHttpServletResponse response = perform(true, "/v1/protected/students/1", 200);
+
+        assertThat(response.getHeader("Server-Timing"))
+                .startsWith("jwt;desc=\"JWT verification and issuance\";dur=2.000, db;desc=\"Repository calls\";dur=5.000, total;");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    public void serverTimingHeaderShouldBeOptIn() throws Exception {
+        assertThat(perform(false, "/v1/protected/students/1", 200).getHeader("Server-Timing")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void requestsShouldBeAggregatedPerRoutePatternWithErrorRate() throws Exception {
+        perform(false, "/v1/protected/students/1", 200);
+        perform(false, "/v1/protected/students/2", 200);
+        perform(false, "/v1/protected/students/3", 500);
+        perform(false, "/v1/protected/students/4", 404);
+
+        Map<String, Object> route = (Map<String, Object>) requestMetrics.stats(false).get("GET /v1/protected/students/{id}");
+        assertThat(route).containsEntry("requests", 4L).containsEntry("errors", 1L).containsEntry("clientErrors", 1L)
+                .containsEntry("errorRate", 0.25);
+        assertThat((Map<String, Object>) route.get("phases")).containsOnlyKeys("jwt", "db");
+        assertThat(requestMetrics.stats(true)).containsKey("GET /v1/protected/students/{id}");
+        assertThat((Map<String, Object>) requestMetrics.stats(true).get("GET /v1/protected/students/{id}"))
+                .containsEntry("requests", 0L);
+    }
+
+    private MockHttpServletResponse perform(boolean serverTiming, String path, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Servlet handler = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/v1/protected/students/{id}");
+                RequestTimings.record(RequestTimings.Phase.JWT, 2_000_000L);
+                RequestTimings.record(RequestTimings.Phase.DB, 5_000_000L);
+                resp.setStatus(status);
+                resp.getWriter().write("{}");
+            }
+        };
+        new RequestMetricsFilter(requestMetrics, serverTiming).doFilter(request, response, new MockFilterChain(handler));
+        return response;
+    }
+
+}
@@ -0,0 +1,89 @@
+package br.com.devdojo.demo.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenCacheTest {
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(tokenCache, "maxSize", 10);
+        ReflectionTestUtils.setField(tokenCache, "ttl", 60000L);
+    }
+
+    @Test
+    public void getShouldReturnTheCachedAuthenticationUntilTheTtlExpires() throws InterruptedException {
+        ReflectionTestUtils.setField(tokenCache, "ttl", 50L);
+        tokenCache.put("token", authentication("goku"), null);
+
+        assertThat(tokenCache.get("token").getName()).isEqualTo("goku");
+        Thread.sleep(80);
+        assertThat(tokenCache.get("token")).isNull();
+        assertThat(tokenCache.stats()).containsEntry("size", 0).containsEntry("evictions", 1L);
+    }
+
+    @Test
+    public void putShouldNotOutliveTheTokenExpirationNorCacheExpiredTokens() throws InterruptedException {
+        tokenCache.put("expiring", authentication("goku"), new Date(System.currentTimeMillis() + 50));
+        tokenCache.put("expired", authentication("goku"), new Date(System.currentTimeMillis() - 1));
+
+        assertThat(tokenCache.get("expired")).isNull();
+        assertThat(tokenCache.get("expiring")).isNotNull();
+        Thread.sleep(80);
+        assertThat(tokenCache.get("expiring")).isNull();
+    }
+
+    @Test
+    public void putWhenTheCacheIsFullShouldTrimItToNinetyPercent() {
+        for (int i = 0; i < 10; i++) tokenCache.put("token-" + i, authentication("user-" + i), null);
+        assertThat(tokenCache.stats()).containsEntry("size", 10);
+
+        tokenCache.put("token-10", authentication("user-10"), null);
+
+        assertThat(tokenCache.stats()).containsEntry("size", 10).containsEntry("evictions", 1L);
+        assertThat(tokenCache.get("token-10")).isNotNull();
+        for (int i = 11; i < 100; i++) tokenCache.put("token-" + i, authentication("user-" + i), null);
+        assertThat((int) tokenCache.stats().get("size")).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void putWhenTheCacheIsFullShouldDropExpiredEntriesBeforeLiveOnes() throws InterruptedException {
+        for (int i = 0; i < 9; i++)
+            tokenCache.put("expiring-" + i, authentication("user-" + i), new Date(System.currentTimeMillis() + 30));
+        tokenCache.put("live", authentication("goku"), null);
+        Thread.sleep(50);
+
+        tokenCache.put("new", authentication("vegeta"), null);
+
+        assertThat(tokenCache.stats()).containsEntry("size", 2).containsEntry("evictions", 9L);
+        assertThat(tokenCache.get("live")).isNotNull();
+        assertThat(tokenCache.get("new")).isNotNull();
+    }
+
+    @Test
+    public void invalidateShouldOnlyDropTheTokensOfTheGivenUser() {
+        tokenCache.put("goku-1", authentication("goku"), null);
+        tokenCache.put("goku-2", authentication("goku"), null);
+        tokenCache.put("vegeta", authentication("vegeta"), null);
+
+        tokenCache.invalidate("goku");
+
+        assertThat(tokenCache.get("goku-1")).isNull();
+        assertThat(tokenCache.get("goku-2")).isNull();
+        assertThat(tokenCache.get("vegeta")).isNotNull();
+    }
+
+    static UsernamePasswordAuthenticationToken authentication(String username) {
+        return new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+
+}
@@ -0,0 +1,74 @@
+package br.com.devdojo.demo.config;
+
+import br.com.devdojo.demo.model.User;
+import br.com.devdojo.demo.repository.UserRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static br.com.devdojo.demo.config.TokenCacheTest.authentication;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({UserChangeListener.class, TokenCache.class})
+// User.admin carries @NotEmpty, which has no validator for a boolean, so users cannot be persisted with validation on
+@TestPropertySource(properties = "spring.jpa.properties.javax.persistence.validation.mode=none")
+public class UserChangeListenerTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    private User goku;
+
+    @Before
+    public void setup() {
+        goku = new User();
+        goku.setUsername("goku");
+        goku.setPassword("x");
+        goku.setName("Goku");
+        goku = userRepository.save(goku);
+        testEntityManager.flush();
+        tokenCache.put("goku", authentication("goku"), null);
+        tokenCache.put("vegeta", authentication("vegeta"), null);
+    }
+
+    @Test
+    public void updatingAUserShouldDropItsCachedAuthentications() {
+        goku.setAdmin(true);
+        testEntityManager.flush();
+
+        assertThat(tokenCache.get("goku")).isNull();
+        assertThat(tokenCache.get("vegeta")).isNotNull();
+    }
+
+    @Test
+    public void renamingAUserShouldDropTheAuthenticationsCachedUnderTheOldUsername() {
+        goku.setUsername("kakarotto");
+        testEntityManager.flush();
+
+        assertThat(tokenCache.get("goku")).isNull();
+    }
+
+    @Test
+    public void deletingAUserShouldDropItsCachedAuthentications() {
+        userRepository.delete(goku);
+        testEntityManager.flush();
+
+        assertThat(tokenCache.get("goku")).isNull();
+        assertThat(tokenCache.get("vegeta")).isNotNull();
+    }
+
+}
@@ -0,0 +1,194 @@
+package br.com.devdojo.demo.endpoint;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.sql.SqlCapture;
+import br.com.devdojo.demo.sql.SqlCaptureConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static br.com.devdojo.demo.sql.SqlCapture.Type.DELETE;
+import static br.com.devdojo.demo.sql.SqlCapture.Type.SELECT;
+import static br.com.devdojo.demo.sql.SqlCapture.Type.UPDATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * Locks in the SQL statements each request costs, on an H2 database.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+@Import(SqlCaptureConfiguration.class)
+@TestPropertySource(properties = {"spring.datasource.url=jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "rate-limit.enabled=false",
+        "student.name-index.rebuild-on-startup=false",
+        "jwt.revocation.refresh-ms=3600000"})
+public class StudentEndpointStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Student student;
+
+    @Before
+    public void setup() {
+        student = studentRepository.save(new Student("Goku", "goku@email.com"));
+    }
+
+    @After
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void getByIdShouldIssueOneSelectAndThenBeServedFromTheSecondLevelCache() throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        perform(get("/v1/protected/students/{id}", student.getId()), SELECT)
+                .andExpect(status().isOk());
+        perform(get("/v1/protected/students/{id}", student.getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void getByIdWhenIfNoneMatchIsCurrentShouldOnlySelectTheVersion() throws Exception {
+        perform(get("/v1/protected/students/{id}", student.getId()).header("If-None-Match", "\"" + student.getVersion() + "\""), SELECT)
+                .andExpect(status().isNotModified());
+        assertThat(sqlCapture.statements(SELECT).get(0)).doesNotContain("email");
+    }
+
+    @Test
+    public void getByIdsShouldIssueOneSelectForAllIdsAndLeaveOutUnknownOnes() throws Exception {
+        Student other = studentRepository.save(new Student("Vegeta", "vegeta@email.com"));
+        perform(get("/v1/protected/students").param("ids", student.getId() + "," + other.getId() + ",-1," + student.getId()), SELECT)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    public void updateWhenStudentExistsShouldIssueOneStatement() throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON).content(body(student.getId())), UPDATE)
+                .andExpect(status().isOk());
+        assertThat(studentRepository.findOne(student.getId()).getName()).isEqualTo("Kakarotto");
+    }
+
+    @Test
+    public void updateWhenStudentDoesNotExistShouldOnlyUpdateAndReturn404() throws Exception {
+        perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON).content(body(-1L)), UPDATE)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title").value("Resource Not Found"))
+                .andExpect(jsonPath("$.detail").value("Student not found for ID: -1"));
+    }
+
+    @Test
+    public void updateWhenIfMatchIsCurrentShouldIssueOneStatementAndReturnTheNewETag() throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON).content(body(student.getId()))
+                .header("If-Match", "\"" + student.getVersion() + "\""), UPDATE)
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + (student.getVersion() + 1) + "\""));
+    }
+
+    @Test
+    public void updateWhenIfMatchIsStaleShouldReturn412WithoutWriting() throws Exception {
+        perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON).content(body(student.getId()))
+                .header("If-Match", "\"" + (student.getVersion() + 5) + "\""), UPDATE, SELECT)
+                .andExpect(status().isPreconditionFailed());
+        assertThat(studentRepository.findOne(student.getId()).getName()).isEqualTo("Goku");
+    }
+
+    @Test
+    public void updateWithoutIfMatchWhenTheCachedVersionIsStaleShouldStillWrite() throws Exception {
+        new JdbcTemplate(dataSource).update("update student set version = version + 1 where id = ?", student.getId());
+        assertThat(entityManagerFactory.getCache().contains(Student.class, student.getId())).isTrue();
+
+        perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON).content(body(student.getId())), UPDATE)
+                .andExpect(status().isOk());
+        assertThat(studentRepository.findOne(student.getId()).getVersion()).isEqualTo(student.getVersion() + 2);
+    }
+
+    @Test
+    public void updateShouldLeaveTheOtherStudentsInTheSecondLevelCache() throws Exception {
+        Student other = studentRepository.save(new Student("Vegeta", "vegeta@email.com"));
+        entityManagerFactory.getCache().evictAll();
+        perform(get("/v1/protected/students/{id}", other.getId()), SELECT);
+        perform(get("/v1/protected/students/{id}", student.getId()), SELECT);
+
+        perform(put("/v1/admin/students").contentType(MediaType.APPLICATION_JSON).content(body(student.getId())), UPDATE)
+                .andExpect(status().isOk());
+
+        assertThat(entityManagerFactory.getCache().contains(Student.class, other.getId())).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Student.class, student.getId())).isFalse();
+        perform(get("/v1/protected/students/{id}", other.getId()))
+                .andExpect(status().isOk());
+        perform(get("/v1/protected/students/{id}", student.getId()), SELECT)
+                .andExpect(jsonPath("$.name").value("Kakarotto"));
+    }
+
+    @Test
+    public void deleteWhenStudentExistsShouldIssueOneStatement() throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        perform(delete("/v1/admin/students/{id}", student.getId()), DELETE)
+                .andExpect(status().isOk());
+        assertThat(studentRepository.exists(student.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(Student.class, student.getId())).isFalse();
+    }
+
+    @Test
+    public void deleteWhenStudentDoesNotExistShouldOnlyDeleteAndReturn404() throws Exception {
+        perform(delete("/v1/admin/students/{id}", -1L), DELETE)
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title").value("Resource Not Found"));
+    }
+
+    private ResultActions perform(RequestBuilder request, SqlCapture.Type... expectedStatements) throws Exception {
+        sqlCapture.clear();
+        return mockMvc.perform(request).andExpect(sqlCapture.executed(expectedStatements));
+    }
+
+    private static String body(long id) {
+        return "{\"id\":" + id + ",\"name\":\"Kakarotto\",\"email\":\"goku@email.com\"}";
+    }
+
+}
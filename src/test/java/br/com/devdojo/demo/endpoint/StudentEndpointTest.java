@@ -1,148 +1,273 @@
 package br.com.devdojo.demo.endpoint;
 
+import br.com.devdojo.demo.model.CursorPage;
 import br.com.devdojo.demo.model.Student;
 import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.sql.SqlCapture;
+import br.com.devdojo.demo.sql.SqlCaptureConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.context.embedded.LocalServerPort;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.boot.test.web.client.TestRestTemplate;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.context.annotation.Bean;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.Collections;
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /*
-* Testes usando basic auth
+* Every request authenticates with @WithMockUser or carries a bearer token and asserts the statements it ran;
+* StudentRepository is mocked, so none are expected.
 */
 @RunWith(SpringRunner.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest
 @AutoConfigureMockMvc
+@Import(SqlCaptureConfiguration.class)
 public class StudentEndpointTest {
 
-    @Autowired
-    private TestRestTemplate restTemplate;
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
 
     @Autowired
     private MockMvc mockMvc;
 
-    @LocalServerPort
-    private int port;
-
     @MockBean
     private StudentRepository studentRepository;
 
+    @Autowired
+    private SqlCapture sqlCapture;
+
     @Before
     public void setup() {
+        sqlCapture.clear();
         Student student = new Student(1L, "teste", "teste@teste.com");
         BDDMockito.when(studentRepository.findOne(student.getId())).thenReturn(student);
+        BDDMockito.when(studentRepository.deleteStudent(student.getId())).thenReturn(1);
     }
 
     @Test
-    public void listStudentsWhenUsernameAndPasswordAreIncorrectShouldReturnStatusCode401() {
-        restTemplate = restTemplate.withBasicAuth("1", "1");
-        ResponseEntity<String> response = restTemplate.getForEntity("/v1/protected/students", String.class);
-        assertThat(response.getStatusCodeValue()).isEqualTo(401);
+    public void listStudentsWhenTokenIsInvalidShouldReturnStatusCode401() throws Exception {
+        mockMvc.perform(get("/v1/protected/students").header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(sqlCapture.executed());
     }
 
     @Test
-    public void getStudentByIdWhenUsernameAndPasswordAreIncorrectShouldReturnStatusCode401() {
-        restTemplate = restTemplate.withBasicAuth("1", "1");
-        ResponseEntity<String> response = restTemplate.getForEntity("/v1/protected/students/1", String.class);
-        assertThat(response.getStatusCodeValue()).isEqualTo(401);
+    public void getStudentByIdWhenTokenIsInvalidShouldReturnStatusCode401() throws Exception {
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L).header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(sqlCapture.executed());
     }
 
     @Test
-    public void listStudentsWhenUsernameAndPasswordAreCorrectShouldReturnStatusCode200() {
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void listStudentsWhenUserIsAuthenticatedShouldReturnStatusCode200() throws Exception {
         List<Student> students = asList(
                 new Student(1L, "teste", "teste@teste.com"),
                 new Student(2L, "teste2", "teste2@teste.com")
         );
-        BDDMockito.when(studentRepository.findAll()).thenReturn(students);
-        ResponseEntity<String> response = restTemplate.getForEntity("/v1/protected/students/", String.class);
-        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        BDDMockito.when(studentRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(students));
+        mockMvc.perform(get("/v1/protected/students/"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed());
     }
 
     @Test
-    public void getStudentByIdWhenUsernameAndPasswordAreCorrectShouldReturnStatusCode200() {
-        ResponseEntity<String> response = restTemplate.getForEntity("/v1/protected/students/1", String.class, 1L);
-        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void listStudentsWhenIfNoneMatchIsCurrentShouldReturnStatusCode304() throws Exception {
+        BDDMockito.when(studentRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(asList(new Student(1L, "teste", "teste@teste.com"))));
+        String etag = mockMvc.perform(get("/v1/protected/students/"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/v1/protected/students/").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(sqlCapture.executed())
+                .andExpect(content().string(""));
     }
 
     @Test
-    public void getStudentByIdWhenUsernameAndPasswordAreCorrectAndStudentDoesNotExistShouldReturnStatusCode404() {
-        ResponseEntity<String> response = restTemplate.getForEntity("/v1/protected/students/{id}", String.class, -1);
-        assertThat(response.getStatusCodeValue()).isEqualTo(404);
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void getStudentByIdWhenIfNoneMatchIsCurrentShouldReturnStatusCode304WithoutLoadingTheStudent() throws Exception {
+        BDDMockito.when(studentRepository.findVersionById(1L)).thenReturn(0L);
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(sqlCapture.executed());
+        BDDMockito.verify(studentRepository, BDDMockito.never()).findOne(1L);
     }
 
     @Test
-    public void deleteWhenUserHasRoleAdminAndStudentExistsShouldReturnStatusCode200() {
-        BDDMockito.doNothing().when(studentRepository).delete(1L);
-        ResponseEntity<String> exchange = restTemplate
-                .exchange("/v1/admin/students/{id}", HttpMethod.DELETE, null, String.class, 1L);
-        assertThat(exchange.getStatusCodeValue()).isEqualTo(200);
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void updateWhenIfMatchIsStaleShouldReturnStatusCode412() throws Exception {
+        mockMvc.perform(put("/v1/admin/students").header(HttpHeaders.IF_MATCH, "\"7\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":1,\"name\":\"teste\",\"email\":\"teste@teste.com\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(sqlCapture.executed());
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void updateWhenIfMatchIsTheWeakenedTagOfACompressedResponseShouldReturnStatusCode200() throws Exception {
+        BDDMockito.when(studentRepository.updateStudent(1L, "teste", "teste@teste.com", Collections.singletonList(0L))).thenReturn(1);
+        mockMvc.perform(put("/v1/admin/students").header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":1,\"name\":\"teste\",\"email\":\"teste@teste.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed());
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void listStudentsByCursorWhenThereAreMoreStudentsShouldReturnNextCursor() throws Exception {
+        List<Student> students = asList(
+                new Student(1L, "teste", "teste@teste.com"),
+                new Student(2L, "teste2", "teste2@teste.com")
+        );
+        BDDMockito.when(studentRepository.findByIdGreaterThanOrderByIdAsc(0L, new PageRequest(0, 2)))
+                .thenReturn(new SliceImpl<>(students, new PageRequest(0, 2), true));
+        String body = mockMvc.perform(get("/v1/protected/students").param("cursor", "").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("\"nextCursor\":\"" + CursorPage.encodeCursor(2L) + "\"")
+                .doesNotContain("totalElements");
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void listStudentsByCursorWhenCursorIsInvalidShouldReturnStatusCode400() throws Exception {
+        mockMvc.perform(get("/v1/protected/students").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(sqlCapture.executed());
+        BDDMockito.verify(studentRepository, BDDMockito.never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void getStudentByIdWhenUserIsAuthenticatedShouldReturnStatusCode200() throws Exception {
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed());
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER"})
+    public void getStudentByIdWhenUserIsAuthenticatedAndStudentDoesNotExistShouldReturnStatusCode404() throws Exception {
+        mockMvc.perform(get("/v1/protected/students/{id}", -1L))
+                .andExpect(status().isNotFound())
+                .andExpect(sqlCapture.executed());
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void deleteWhenUserHasRoleAdminAndStudentExistsShouldReturnStatusCode200() throws Exception {
+        mockMvc.perform(delete("/v1/admin/students/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed());
+        BDDMockito.verify(studentRepository).deleteStudent(1L);
     }
 
     @Test
     @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
     public void deleteWhenUserHasRoleAdminAndStudentDoesNotExistsShouldReturnStatusCode404() throws Exception {
-        BDDMockito.doNothing().when(studentRepository).delete(1L);
-//        ResponseEntity<String> exchange = restTemplate
-//                .exchange("/v1/admin/students/{id}", HttpMethod.DELETE, null, String.class, -1);
-//        assertThat(exchange.getStatusCodeValue()).isEqualTo(404);
         mockMvc.perform(delete("/v1/admin/students/{id}", -1L))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(sqlCapture.executed());
     }
 
     @Test
     @WithMockUser(username = "xx", password = "xx")
     public void deleteWhenUserDoesNotHaveRoleAdminShouldReturnStatusCode403() throws Exception {
-        BDDMockito.doNothing().when(studentRepository).delete(1L);
         mockMvc.perform(delete("/v1/admin/students/{id}", 1L))
-                .andExpect(status().isForbidden());
+                .andExpect(status().isForbidden())
+                .andExpect(sqlCapture.executed());
     }
 
     @Test
-    public void createWhenNameIsNullShouldReturnStatusCode400() {
-        Student student = new Student(3L, null, "teste@teste.com");
-        BDDMockito.when(studentRepository.save(student)).thenReturn(student);
-        ResponseEntity<String> response = restTemplate.postForEntity("/v1/admin/students/", student, String.class);
-        assertThat(response.getStatusCodeValue()).isEqualTo(400);
-        assertThat(response.getBody()).contains("fieldMessage", "O campo nome do estudante é obrigatório");
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void getStudentByIdWhenAcceptIsSmileShouldReturnTheSameStudentEncodedAsSmile() throws Exception {
+        byte[] body = mockMvc.perform(get("/v1/protected/students/{id}", 1L).accept(APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        Student student = new ObjectMapper(new SmileFactory()).readValue(body, Student.class);
+        assertThat(student.getName()).isEqualTo("teste");
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void getStudentByIdWhenAcceptIsAnyShouldStillReturnJson() throws Exception {
+        mockMvc.perform(get("/v1/protected/students/{id}", 1L).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(sqlCapture.executed())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
     }
 
     @Test
-    public void createShouldPersistDataAndReturnStatusCode201() {
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void createWhenBodyIsSmileShouldPersistDataAndAnswerErrorsInSmile() throws Exception {
         Student student = new Student(3L, "SAM", "teste@teste.com");
         BDDMockito.when(studentRepository.save(student)).thenReturn(student);
-        ResponseEntity<Student> response = restTemplate.postForEntity("/v1/admin/students/", student, Student.class);
-        assertThat(response.getStatusCodeValue()).isEqualTo(201);
-        assertThat(response.getBody().getId()).isNotNull();
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        mockMvc.perform(post("/v1/admin/students").contentType(APPLICATION_SMILE).accept(APPLICATION_SMILE)
+                .content(smile.writeValueAsBytes(student)))
+                .andExpect(status().isCreated())
+                .andExpect(sqlCapture.executed());
+        byte[] error = mockMvc.perform(get("/v1/protected/students/{id}", 2L).accept(APPLICATION_SMILE))
+                .andExpect(status().isNotFound())
+                .andExpect(sqlCapture.executed())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(smile.readTree(error).get("title").asText()).isEqualTo("Resource Not Found");
     }
 
-    @TestConfiguration
-    static class Config {
-        @Bean
-        public RestTemplateBuilder restTemplateBuilder() {
-            return new RestTemplateBuilder().basicAuthorization("goku", "teste");
-        }
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void createWhenNameIsNullShouldReturnStatusCode400() throws Exception {
+        String body = mockMvc.perform(post("/v1/admin/students/").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":3,\"email\":\"teste@teste.com\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(sqlCapture.executed())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("fieldMessage", "O campo nome do estudante é obrigatório");
+        BDDMockito.verify(studentRepository, BDDMockito.never()).save(any(Student.class));
+    }
+
+    @Test
+    @WithMockUser(username = "xx", password = "xx", roles = {"USER", "ADMIN"})
+    public void createShouldPersistDataAndReturnStatusCode201() throws Exception {
+        Student student = new Student(3L, "SAM", "teste@teste.com");
+        BDDMockito.when(studentRepository.save(student)).thenReturn(student);
+        mockMvc.perform(post("/v1/admin/students/").contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsBytes(student)))
+                .andExpect(status().isCreated())
+                .andExpect(content().json("{\"id\":3,\"name\":\"SAM\"}"))
+                .andExpect(sqlCapture.executed());
     }
 
-}
\ No newline at end of file
+}
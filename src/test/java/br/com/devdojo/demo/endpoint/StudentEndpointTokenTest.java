@@ -2,6 +2,8 @@ package br.com.devdojo.demo.endpoint;
 
 import br.com.devdojo.demo.model.Student;
 import br.com.devdojo.demo.repository.StudentRepository;
+import br.com.devdojo.demo.sql.SqlCapture;
+import br.com.devdojo.demo.sql.SqlCaptureConfiguration;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -12,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -19,6 +22,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static br.com.devdojo.demo.sql.SqlCapture.Type.SELECT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -29,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
+@Import(SqlCaptureConfiguration.class)
 public class StudentEndpointTokenTest {
 
     @Autowired
@@ -43,6 +48,9 @@ public class StudentEndpointTokenTest {
     @MockBean
     private StudentRepository studentRepository;
 
+    @Autowired
+    private SqlCapture sqlCapture;
+
     private HttpEntity<Void> protectedHeader;
 
     private HttpEntity<Void> adminHeader;
@@ -78,8 +86,10 @@ public class StudentEndpointTokenTest {
 
     @Test
     public void listStudentsWhenTokenIsIncorrectShouldReturnStatusCode403() {
+        sqlCapture.clear();
         ResponseEntity<String> response = restTemplate.exchange("/v1/protected/students", HttpMethod.GET, wrongHeader, String.class);
         assertThat(response.getStatusCodeValue()).isEqualTo(403);
+        sqlCapture.assertNoStatements();
     }
 
     @Test
@@ -96,8 +106,10 @@ public class StudentEndpointTokenTest {
 
     @Test
     public void getStudentByIdWhenTokenIsCorrectShouldReturnStatusCode200() {
+        sqlCapture.clear();
         ResponseEntity<Student> response = restTemplate.exchange("/v1/protected/students/1", HttpMethod.GET, protectedHeader, Student.class);
         assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        assertAtMostTheUserLookup();
     }
 
     @Test
@@ -118,18 +130,22 @@ public class StudentEndpointTokenTest {
     public void deleteWhenUserHasRoleAdminAndStudentDoesNotExistsShouldReturnStatusCode404() throws Exception {
         String token = adminHeader.getHeaders().get("Authorization").get(0);
         BDDMockito.doNothing().when(studentRepository).delete(1L);
+        sqlCapture.clear();
         mockMvc.perform(delete("/v1/admin/students/{id}", -1L)
                 .header("Authorization", token))
                 .andExpect(status().isNotFound());
+        assertAtMostTheUserLookup();
     }
 
     @Test
     public void deleteWhenUserDoesNotHaveRoleAdminShouldReturnStatusCode403() throws Exception {
         String token = protectedHeader.getHeaders().get("Authorization").get(0);
         BDDMockito.doNothing().when(studentRepository).delete(1L);
+        sqlCapture.clear();
         mockMvc.perform(delete("/v1/admin/students/{id}", 1L)
                 .header("Authorization", token))
                 .andExpect(status().isForbidden());
+        assertAtMostTheUserLookup();
     }
 
     @Test
@@ -158,4 +174,12 @@ public class StudentEndpointTokenTest {
         assertThat(response.getBody().getId()).isNotNull();
     }
 
-}
\ No newline at end of file
+    /*
+     * The student repository is mocked, so the only SQL left is the user lookup of a token not cached yet.
+     */
+    private void assertAtMostTheUserLookup() {
+        sqlCapture.assertAtMost(SELECT, 1);
+        for (String sql : sqlCapture.statements()) assertThat(sql).as("captured SQL").contains(" from user ");
+    }
+
+}
@@ -0,0 +1,78 @@
+package br.com.devdojo.demo.javaclient;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BearerTokenManagerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final AtomicInteger logins = new AtomicInteger();
+
+    private final BearerTokenManager tokens = new BearerTokenManager(
+            () -> token(logins.incrementAndGet(), now.get() + 600_000L), 60_000L, now::get);
+
+    @Test
+    public void tokenShouldBeReusedUntilTheRefreshMargin() {
+        String first = tokens.token();
+        now.addAndGet(539_000L);
+
+        assertThat(tokens.token()).isSameAs(first);
+        assertThat(logins.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void tokenShouldBeRenewedBeforeItExpires() {
+        String first = tokens.token();
+        now.addAndGet(541_000L);
+
+        assertThat(tokens.token()).isNotEqualTo(first);
+        assertThat(logins.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void failedRenewalShouldKeepUsingTheCurrentTokenUntilItExpires() {
+        AtomicInteger attempts = new AtomicInteger();
+        BearerTokenManager failing = new BearerTokenManager(() -> {
+            if (attempts.incrementAndGet() > 1) throw new IllegalStateException("server down");
+            return token(1, now.get() + 600_000L);
+        }, 60_000L, now::get);
+        String first = failing.token();
+        now.addAndGet(541_000L);
+
+        assertThat(failing.token()).isSameAs(first);
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidatedTokenShouldBeReplacedOnce() {
+        String first = tokens.token();
+        tokens.invalidate(first);
+        String second = tokens.token();
+        tokens.invalidate(first);
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(tokens.token()).isSameAs(second);
+        assertThat(logins.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void tokensWithoutExpShouldNeverBeRenewed() {
+        assertThat(BearerTokenManager.expiresAt("Bearer " + encode("{\"sub\":\"goku\"}") + "." + encode("x"))).isEqualTo(Long.MAX_VALUE);
+        assertThat(BearerTokenManager.expiresAt("Bearer not-a-jwt")).isEqualTo(Long.MAX_VALUE);
+    }
+
+    private static String token(int n, long expiresAtMillis) {
+        return "Bearer " + encode("{\"alg\":\"HS512\"}") + "." + encode("{\"sub\":\"goku\",\"n\":" + n + ",\"exp\":" + expiresAtMillis / 1000 + "}") + ".signature";
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
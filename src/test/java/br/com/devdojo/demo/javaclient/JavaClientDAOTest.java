@@ -0,0 +1,95 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/*
+ * Runs the client against a stub server that writes pages with an ObjectMapper configured like the application's
+ * Smile converter, so the documents carry every Page and Slice field, including those PageableResponse can't set.
+ */
+public class JavaClientDAOTest {
+
+    private static final List<Student> STUDENTS = Arrays.asList(
+            new Student(1L, "Goku", "goku@email.com"), new Student(2L, "Gohan", "gohan@email.com"));
+
+    private final ObjectMapper serverMapper = new ObjectMapper(new SmileFactory());
+
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+
+    private JavaClientDAO client;
+
+    @Before
+    public void setup() throws IOException {
+        Jackson2ObjectMapperBuilder.json().configure(serverMapper);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/login", exchange -> {
+            exchange.getResponseHeaders().add(HttpHeaders.AUTHORIZATION, "Bearer token");
+            respond(exchange, null, new byte[0]);
+        });
+        server.createContext("/v1/protected/students/findByName/", exchange -> respond(exchange,
+                JavaClientDAO.APPLICATION_SMILE.toString(),
+                serverMapper.writeValueAsBytes(new SliceImpl<>(STUDENTS, new PageRequest(0, 5), false))));
+        server.createContext("/v1/protected/students/", exchange -> respond(exchange,
+                JavaClientDAO.APPLICATION_SMILE.toString(),
+                serverMapper.writeValueAsBytes(new PageImpl<>(STUDENTS, new PageRequest(0, 5), 2))));
+        server.start();
+        client = new JavaClientDAO("http://localhost:" + server.getAddress().getPort(), "goku", "teste");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void listAllShouldReadASmilePage() {
+        assertThat(client.listAll()).extracting("id", "name").containsExactly(
+                tuple(1L, "Goku"), tuple(2L, "Gohan"));
+        assertThat(accepted).hasSize(1);
+        assertThat(accepted.get(0)).startsWith(JavaClientDAO.APPLICATION_SMILE.toString());
+    }
+
+    @Test
+    public void findByNameShouldReadASmileSlice() {
+        assertThat(client.findByName("go")).extracting("name").containsExactly("Goku", "Gohan");
+        assertThat(accepted).hasSize(1);
+        assertThat(accepted.get(0)).startsWith(JavaClientDAO.APPLICATION_SMILE.toString());
+    }
+
+    private void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT);
+        if (contentType != null) {
+            accepted.add(String.valueOf(accept));
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.model.Student;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadGeneratorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void responseTimeShouldIncludeTheTimeRequestsWaitedBehindASlowServer() throws Exception {
+        LoadGenerator generator = new LoadGenerator(new SlowClient(40),
+                LoadGenerator.Options.parse("--rate=50", "--concurrency=1", "--warmup=0", "--duration=1", "--seed=5", "--mix=findById=1"));
+
+        Map<String, Object> report = generator.run();
+
+        Map<String, Object> findById = (Map<String, Object>) ((Map<String, Object>) report.get("operations")).get("findById");
+        Map<String, Object> responseTime = (Map<String, Object>) findById.get("responseTime");
+        Map<String, Object> serviceTime = (Map<String, Object>) findById.get("serviceTime");
+        assertThat(findById).containsEntry("count", 50L).containsEntry("errors", 0L);
+        assertThat((Double) serviceTime.get("p99Millis")).isLessThan(100d);
+        assertThat((Double) responseTime.get("p99Millis")).isGreaterThan(500d);
+        assertThat((Integer) report.get("maxBacklog")).isGreaterThan(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownOperationsInTheMixShouldBeRejected() {
+        LoadGenerator.Options.parse("--mix=findById=1,truncate=1");
+    }
+
+    /*
+     * Never touches the network: the bearer token is only fetched on the first real request.
+     */
+    private static final class SlowClient extends JavaClientDAO {
+        private final AtomicLong ids = new AtomicLong();
+        private final long millis;
+
+        private SlowClient(long millis) {
+            super("http://localhost:0", "goku", "teste");
+            this.millis = millis;
+        }
+
+        @Override
+        public Student save(Student student) {
+            student.setId(ids.incrementAndGet());
+            return student;
+        }
+
+        @Override
+        public Student findById(long id) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Student(id, "Goku", "goku@email.com");
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.model.Student;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class StudentBatchLoaderTest {
+
+    private final RecordingClient client = new RecordingClient();
+
+    @Test
+    public void concurrentLoadsShouldBeCoalescedIntoOneRequestWithDistinctIds() throws Exception {
+        List<CompletableFuture<Student>> futures = Collections.synchronizedList(new ArrayList<>());
+        try (StudentBatchLoader loader = new StudentBatchLoader(client, 200, 100, 0)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (long id = 1; id <= 5; id++) futures.add(loader.load(id));
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            start.countDown();
+            for (Thread thread : threads) thread.join();
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+
+        assertThat(client.batches).hasSize(1);
+        assertThat(client.batches.get(0)).containsOnly(1L, 2L, 3L, 4L, 5L).doesNotHaveDuplicates();
+        for (CompletableFuture<Student> future : futures) assertThat(future.join()).isNotNull();
+    }
+
+    @Test
+    public void aFullBatchShouldBeSentWithoutWaitingForTheWindow() {
+        try (StudentBatchLoader loader = new StudentBatchLoader(client, 3_600_000, 3, 0)) {
+            CompletableFuture<Student> first = loader.load(1);
+            loader.load(2);
+            loader.load(3);
+
+            assertThat(first.isDone()).isTrue();
+            assertThat(client.batches).containsExactly(asList(1L, 2L, 3L));
+        }
+    }
+
+    @Test
+    public void unknownIdsShouldCompleteWithNull() {
+        try (StudentBatchLoader loader = new StudentBatchLoader(client, 1, 100, 0)) {
+            assertThat(loader.findById(-1)).isNull();
+        }
+    }
+
+    @Test
+    public void cachedStudentsShouldNotBeRequestedAgainUntilInvalidated() {
+        try (StudentBatchLoader loader = new StudentBatchLoader(client, 1, 100, 60_000)) {
+            Student student = loader.findById(7);
+
+            assertThat(loader.findById(7)).isSameAs(student);
+            assertThat(client.batches).hasSize(1);
+            loader.invalidate(7);
+            loader.findById(7);
+            assertThat(client.batches).hasSize(2);
+        }
+    }
+
+    @Test
+    public void failedRequestsShouldFailEveryWaitingCaller() {
+        client.fail = true;
+        try (StudentBatchLoader loader = new StudentBatchLoader(client, 3_600_000, 2, 0)) {
+            CompletableFuture<Student> first = loader.load(1);
+            CompletableFuture<Student> second = loader.load(2);
+            try {
+                second.join();
+                fail("Expected the batch to fail");
+            } catch (CompletionException e) {
+                assertThat(e.getCause()).hasMessage("server down");
+            }
+            assertThat(first.isCompletedExceptionally()).isTrue();
+        }
+    }
+
+    private static List<Long> asList(Long... ids) {
+        List<Long> list = new ArrayList<>();
+        Collections.addAll(list, ids);
+        return list;
+    }
+
+    /*
+     * Answers every positive id, without a server.
+     */
+    private static final class RecordingClient extends JavaClientDAO {
+        private final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean fail;
+
+        private RecordingClient() {
+            super("http://localhost:0", "goku", "teste");
+        }
+
+        @Override
+        public CompletableFuture<List<Student>> findByIdsAsync(Collection<Long> ids) {
+            batches.add(new ArrayList<>(ids));
+            CompletableFuture<List<Student>> result = new CompletableFuture<>();
+            if (fail) {
+                result.completeExceptionally(new IllegalStateException("server down"));
+                return result;
+            }
+            List<Student> students = new ArrayList<>();
+            for (Long id : ids) {
+                if (id > 0) students.add(new Student(id, "Student " + id, id + "@email.com"));
+            }
+            result.complete(students);
+            return result;
+        }
+    }
+
+}
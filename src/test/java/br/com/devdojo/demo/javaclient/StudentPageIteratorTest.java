@@ -0,0 +1,112 @@
+package br.com.devdojo.demo.javaclient;
+
+import br.com.devdojo.demo.model.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class StudentPageIteratorTest {
+
+    private final AtomicInteger fetched = new AtomicInteger();
+
+    @Test
+    public void pageShouldBeParsedIgnoringUnknownFields() throws Exception {
+        String json = "{\"size\":2,\"content\":[{\"id\":1,\"name\":\"Goku\",\"email\":\"goku@email.com\",\"version\":3,\"extra\":{\"a\":[1]}},"
+                + "{\"id\":2,\"name\":\"Vegeta\",\"email\":\"vegeta@email.com\"}],\"nextCursor\":\"Mg\",\"totalElements\":10}";
+
+        StudentPageIterator.Page page = StudentPageIterator.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)),
+                MediaType.APPLICATION_JSON);
+
+        assertThat(page.getStudents()).extracting("id", "name").containsExactly(
+                tuple(1L, "Goku"), tuple(2L, "Vegeta"));
+        assertThat(page.getStudents().get(0).getVersion()).isEqualTo(3L);
+        assertThat(page.getNextCursor()).isEqualTo("Mg");
+    }
+
+    @Test
+    public void smilePagesShouldBeParsedLikeJsonOnes() throws Exception {
+        Map<String, Object> cursorPage = new LinkedHashMap<>();
+        cursorPage.put("content", Collections.singletonList(new Student(1L, "Goku", "goku@email.com")));
+        cursorPage.put("size", 1);
+        cursorPage.put("nextCursor", null);
+        byte[] smile = new ObjectMapper(new SmileFactory()).writeValueAsBytes(cursorPage);
+
+        StudentPageIterator.Page page = StudentPageIterator.parse(new ByteArrayInputStream(smile), JavaClientDAO.APPLICATION_SMILE);
+
+        assertThat(page.getStudents()).extracting("name").containsExactly("Goku");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void everyPageShouldBeWalkedInOrder() {
+        List<Long> ids = new ArrayList<>();
+        try (StudentPageIterator iterator = new StudentPageIterator(this::page, 2)) {
+            iterator.forEachRemaining(student -> ids.add(student.getId()));
+        }
+
+        assertThat(ids).hasSize(30).isSorted();
+        assertThat(fetched.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void prefetchShouldStopAtTheConfiguredDepth() throws Exception {
+        try (StudentPageIterator iterator = new StudentPageIterator(this::page, 1)) {
+            assertThat(iterator.next().getId()).isEqualTo(1L);
+            Thread.sleep(200);
+
+            // the page being read, one waiting page, and one fetched page waiting for room
+            assertThat(fetched.get()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void nothingShouldBeFetchedBeforeTheFirstElementIsRequested() throws Exception {
+        try (StudentPageIterator ignored = new StudentPageIterator(this::page, 4)) {
+            Thread.sleep(50);
+            assertThat(fetched.get()).isZero();
+        }
+    }
+
+    @Test
+    public void fetchFailuresShouldBeThrownAfterThePagesBeforeThem() {
+        List<Long> ids = new ArrayList<>();
+        StudentPageIterator iterator = new StudentPageIterator(cursor -> {
+            if (fetched.get() == 2) throw new IllegalStateException("server down");
+            return page(cursor);
+        }, 4);
+        try {
+            iterator.forEachRemaining(student -> ids.add(student.getId()));
+            fail("Expected the third page to fail");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("server down");
+        }
+        assertThat(ids).hasSize(6);
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    /*
+     * Ten pages of three students; the cursor is the last id of the previous page.
+     */
+    private StudentPageIterator.Page page(String cursor) {
+        fetched.incrementAndGet();
+        long after = cursor.isEmpty() ? 0 : Long.parseLong(cursor);
+        List<Student> students = new ArrayList<>();
+        for (long id = after + 1; id <= after + 3; id++) students.add(new Student(id, "Student " + id, id + "@email.com"));
+        return new StudentPageIterator.Page(Collections.unmodifiableList(students), after + 3 < 30 ? String.valueOf(after + 3) : null);
+    }
+
+}
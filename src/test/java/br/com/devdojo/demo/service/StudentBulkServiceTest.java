@@ -0,0 +1,117 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.error.InvalidBulkRequestException;
+import br.com.devdojo.demo.model.BulkResult;
+import br.com.devdojo.demo.model.BulkStudentRequest;
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({StudentBulkService.class, StudentNameIndex.class})
+@TestPropertySource(properties = {"student.bulk.chunk-size=2", "student.name-index.enabled=true",
+        "student.name-index.rebuild-on-startup=false"})
+public class StudentBulkServiceTest {
+
+    @Autowired
+    private StudentBulkService studentBulkService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentNameIndex studentNameIndex;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    public void deleteByIdsShouldReturnAffectedCountAndIdsNotFound() {
+        Student goku = studentRepository.save(new Student("Goku", "goku@email.com"));
+        Student gohan = studentRepository.save(new Student("Gohan", "gohan@email.com"));
+        Student goten = studentRepository.save(new Student("Goten", "goten@email.com"));
+        BulkStudentRequest request = new BulkStudentRequest();
+        request.setIds(asList(goku.getId(), -1L, gohan.getId(), goten.getId(), goku.getId()));
+
+        BulkResult result = studentBulkService.delete(request);
+
+        testEntityManager.clear();
+        assertThat(result.getAffected()).isEqualTo(3);
+        assertThat(result.getNotFound()).containsExactly(-1L);
+        assertThat(studentRepository.count()).isZero();
+    }
+
+    @Test
+    public void updateByNameShouldChangeOnlyMatchingStudents() {
+        Student goku = studentRepository.save(new Student("Goku", "goku@email.com"));
+        Student vegeta = studentRepository.save(new Student("Vegeta", "vegeta@email.com"));
+        BulkStudentRequest request = new BulkStudentRequest();
+        request.setNameContains("GOK");
+        request.setNewEmail("kakarotto@email.com");
+
+        BulkResult result = studentBulkService.update(request);
+
+        testEntityManager.clear();
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(studentRepository.findOne(goku.getId()).getEmail()).isEqualTo("kakarotto@email.com");
+        assertThat(studentRepository.findOne(vegeta.getId()).getEmail()).isEqualTo("vegeta@email.com");
+    }
+
+    @Test
+    public void deleteByNameShouldSelectFromTheDatabaseWhenTheIndexIsStale() {
+        Student goku = studentRepository.save(new Student("Goku", "goku@email.com"));
+        studentNameIndex.rebuild();
+        goku.setName("Kakarotto");
+        testEntityManager.flush();
+        BulkStudentRequest request = new BulkStudentRequest();
+        request.setNameContains("GOK");
+
+        BulkResult result = studentBulkService.delete(request);
+
+        assertThat(result.getAffected()).isZero();
+        assertThat(studentNameIndex.findIds("goku")).containsExactly(goku.getId());
+    }
+
+    @Test
+    public void updateByNameWhenTheTransactionRollsBackShouldLeaveTheIndexUnchanged() {
+        Student goku = studentRepository.save(new Student("Goku", "goku@email.com"));
+        studentNameIndex.rebuild();
+        BulkStudentRequest request = new BulkStudentRequest();
+        request.setNameContains("Goku");
+        request.setNewName("Kakarotto");
+
+        assertThat(studentBulkService.update(request).getAffected()).isEqualTo(1);
+        TestTransaction.end();
+
+        assertThat(studentNameIndex.findIds("kakarotto")).isEmpty();
+        assertThat(studentNameIndex.findIds("goku")).containsExactly(goku.getId());
+    }
+
+    @Test(expected = InvalidBulkRequestException.class)
+    public void deleteWhenMoreThanOneSelectorIsGivenShouldThrowInvalidBulkRequestException() {
+        BulkStudentRequest request = new BulkStudentRequest();
+        request.setIds(asList(1L, 2L));
+        request.setEmailEquals("goku@email.com");
+        studentBulkService.delete(request);
+    }
+
+    @Test(expected = InvalidBulkRequestException.class)
+    public void updateWhenNothingToSetShouldThrowInvalidBulkRequestException() {
+        BulkStudentRequest request = new BulkStudentRequest();
+        request.setIds(asList(1L, 2L));
+        studentBulkService.update(request);
+    }
+
+}
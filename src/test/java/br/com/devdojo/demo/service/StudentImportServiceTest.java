@@ -0,0 +1,82 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.model.ImportResult;
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({StudentImportService.class, StudentNameIndex.class, JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@TestPropertySource(properties = {"student.import.batch-size=2", "student.name-index.rebuild-on-startup=false"})
+public class StudentImportServiceTest {
+
+    @Autowired
+    private StudentImportService studentImportService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @After
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void importNdjsonShouldPersistValidRowsAndReportInvalidOnes() throws IOException {
+        ImportResult result = importStudents("{\"name\":\"Goku\",\"email\":\"goku@email.com\"}\n" +
+                "{\"name\":\"\",\"email\":\"nobody@email.com\"}\n" +
+                "{\"name\":\"Vegeta\",\"email\":\"vegeta\"}\n" +
+                "{\"name\":\"Gohan\",\"email\":\"gohan@email.com\"}\n" +
+                "{\"name\":\"Piccolo\",\"email\":\"piccolo@email.com\"}\n");
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRow).containsExactly(2L, 3L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("O campo nome do estudante é obrigatório");
+        assertThat(result.getErrors().get(1).getMessage()).contains("O campo email do estudante não é válido");
+        assertThat(studentRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    public void importJsonArrayShouldIgnoreClientIdsAndAssignNewOnes() throws IOException {
+        ImportResult result = importStudents("[{\"id\":1,\"name\":\"Goku\",\"email\":\"goku@email.com\"}," +
+                "{\"id\":1,\"name\":\"Gohan\",\"email\":\"gohan@email.com\"}," +
+                "{\"name\":\"Goten\",\"email\":\"goten@email.com\"}]");
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isZero();
+        List<Student> students = studentRepository.findByNameIgnoreCaseContaining("go");
+        assertThat(students).extracting(Student::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void importWhenBodyIsMalformedShouldKeepRowsReadBeforeTheError() throws IOException {
+        ImportResult result = importStudents("{\"name\":\"Goku\",\"email\":\"goku@email.com\"}\n" +
+                "{\"name\":\"Gohan\",\"email\":\n");
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(ImportResult.RowError::getRow).containsExactly(2L);
+    }
+
+    private ImportResult importStudents(String body) throws IOException {
+        return studentImportService.importStudents(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,139 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.model.Student;
+import br.com.devdojo.demo.repository.StudentRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(StudentNameIndex.class)
+@TestPropertySource(properties = {"student.name-index.enabled=true", "student.name-index.rebuild-on-startup=false"})
+public class StudentNameIndexTest {
+
+    @Autowired
+    private StudentNameIndex studentNameIndex;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        for (String name : new String[]{"Goku", "Gohan", "Goten", "Son Goku", "Vegeta", "Goku Black"})
+            ids.add(studentRepository.save(new Student(name, name.replace(" ", "").toLowerCase() + "@email.com")).getId());
+        studentNameIndex.rebuild();
+    }
+
+    @After
+    public void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    public void findIdsShouldReturnOnlyIdsContainingEveryTrigramOfTheQuery() {
+        assertThat(studentNameIndex.findIds("GOK")).containsExactly(ids.get(0), ids.get(3), ids.get(5));
+        assertThat(studentNameIndex.findIds("n gok")).containsExactly(ids.get(3));
+        assertThat(studentNameIndex.findIds("goten")).containsExactly(ids.get(2));
+        assertThat(studentNameIndex.findIds("gokuten")).isEmpty();
+        assertThat(studentNameIndex.findIds("go")).isNull();
+    }
+
+    @Test
+    public void indexWhenStudentIsRenamedShouldOnlyFindItByTheNewName() {
+        studentNameIndex.index(new Student(ids.get(0), "Kakarotto", "goku@email.com"));
+
+        assertThat(studentNameIndex.findIds("kakarotto")).containsExactly(ids.get(0));
+        assertThat(studentNameIndex.findIds("goku")).containsExactly(ids.get(3), ids.get(5));
+    }
+
+    @Test
+    public void removeShouldDropTheStudentFromEveryTrigram() {
+        studentNameIndex.remove(ids.get(3));
+
+        assertThat(studentNameIndex.findIds("goku")).containsExactly(ids.get(0), ids.get(5));
+        assertThat(studentNameIndex.findIds("son")).isEmpty();
+    }
+
+    @Test
+    public void findIdsWithLimitShouldStopAfterLimitMatches() {
+        assertThat(studentNameIndex.findIds("goku", 2)).containsExactly(ids.get(0), ids.get(3));
+        assertThat(studentNameIndex.findIds("goku")).containsExactly(ids.get(0), ids.get(3), ids.get(5));
+    }
+
+    @Test
+    public void findByNameIgnoreCaseContainingShouldReturnTheRequestedPageInIdOrder() {
+        Slice<Student> first = studentNameIndex.findByNameIgnoreCaseContaining("GOK", new PageRequest(0, 2));
+        Slice<Student> last = studentNameIndex.findByNameIgnoreCaseContaining("GOK", new PageRequest(1, 2));
+
+        assertThat(first.getContent()).extracting(Student::getId).containsExactly(ids.get(0), ids.get(3));
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting(Student::getId).containsExactly(ids.get(5));
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    public void rebuildShouldKeepARenameCommittedWhileThePageWasBeingRead() {
+        StudentRepository repository = mock(StudentRepository.class);
+        StudentNameIndex index = detachedIndex(repository);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            index.index(new Student(1L, "Kakarotto", "goku@email.com"));
+            return new SliceImpl<>(singletonList(new Student(1L, "Goku", "goku@email.com")));
+        });
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.findIds("kakarotto")).containsExactly(1L);
+        assertThat(index.findIds("goku")).isEmpty();
+    }
+
+    @Test
+    public void rebuildShouldKeepARemovalCommittedWhileThePageWasBeingRead() {
+        StudentRepository repository = mock(StudentRepository.class);
+        StudentNameIndex index = detachedIndex(repository);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            index.remove(1L);
+            return new SliceImpl<>(singletonList(new Student(1L, "Goku", "goku@email.com")));
+        });
+
+        index.rebuild();
+
+        assertThat(index.findIds("goku")).isEmpty();
+    }
+
+    private static StudentNameIndex detachedIndex(StudentRepository repository) {
+        StudentNameIndex index = new StudentNameIndex();
+        ReflectionTestUtils.setField(index, "studentRepository", repository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "rebuildPageSize", 10);
+        return index;
+    }
+
+}
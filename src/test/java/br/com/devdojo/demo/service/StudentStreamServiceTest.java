@@ -0,0 +1,109 @@
+package br.com.devdojo.demo.service;
+
+import br.com.devdojo.demo.model.Student;
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * The export must not accumulate rows: the persistence context is sampled on every write to the response
+ * and may hold at most the student being written, whatever the table size.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({StudentStreamService.class, JacksonAutoConfiguration.class})
+public class StudentStreamServiceTest {
+
+    @Autowired
+    private StudentStreamService studentStreamService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    public void exportNdjsonWith1kStudentsShouldKeepAtMostOneManagedEntity() throws IOException {
+        assertExportIsFlat(studentStreamService.exportNdjson(), 1000, 1000);
+    }
+
+    @Test
+    public void exportNdjsonWith10kStudentsShouldKeepAtMostOneManagedEntity() throws IOException {
+        assertExportIsFlat(studentStreamService.exportNdjson(), 10000, 10000);
+    }
+
+    @Test
+    public void exportCsvWith10kStudentsShouldKeepAtMostOneManagedEntityAndWriteAHeader() throws IOException {
+        assertExportIsFlat(studentStreamService.exportCsv(), 10000, 10001);
+    }
+
+    @Test
+    public void exportCsvShouldQuoteFieldsWithSeparators() throws IOException {
+        testEntityManager.persist(new Student("Goku, \"Kakarotto\"", "goku@email.com"));
+        testEntityManager.flush();
+        testEntityManager.clear();
+        SamplingOutputStream out = new SamplingOutputStream();
+        studentStreamService.exportCsv().writeTo(out);
+        assertThat(out.toString()).contains(",\"Goku, \"\"Kakarotto\"\"\",goku@email.com\n");
+    }
+
+    private void assertExportIsFlat(StreamingResponseBody body, int students, int expectedLines) throws IOException {
+        for (int i = 0; i < students; i++) {
+            testEntityManager.persist(new Student("Student " + i, "student" + i + "@email.com"));
+            if (i % 1000 == 999) {
+                testEntityManager.flush();
+                testEntityManager.clear();
+            }
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        SamplingOutputStream out = new SamplingOutputStream();
+        body.writeTo(out);
+
+        assertThat(out.lines).isEqualTo(expectedLines);
+        assertThat(out.samples).isGreaterThan(0);
+        assertThat(out.maxManagedEntities).isLessThanOrEqualTo(1);
+    }
+
+    private class SamplingOutputStream extends OutputStream {
+        private final StringBuilder content = new StringBuilder();
+        private int lines;
+        private int samples;
+        private int maxManagedEntities;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            String chunk = new String(b, off, len, StandardCharsets.UTF_8);
+            for (int i = 0; i < chunk.length(); i++) {
+                if (chunk.charAt(i) == '\n') lines++;
+            }
+            content.append(chunk);
+            samples++;
+            int managed = testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+            maxManagedEntities = Math.max(maxManagedEntities, managed);
+        }
+
+        @Override
+        public String toString() {
+            return content.toString();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package br.com.devdojo.demo.sql;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Wraps every DataSource bean so the statements run on its connections are recorded into a SqlCapture.
+ * Public DataSource classes are proxied by class, so pool-specific methods such as close() keep working.
+ */
+public class CapturingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final SqlCapture capture = new SqlCapture();
+
+    public SqlCapture getCapture() {
+        return capture;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) return bean;
+        ProxyFactory factory = new ProxyFactory(bean);
+        int modifiers = bean.getClass().getModifiers();
+        factory.setProxyTargetClass(Modifier.isPublic(modifiers) && !Modifier.isFinal(modifiers));
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            return result instanceof Connection ? proxy(Connection.class, new ConnectionHandler((Connection) result)) : result;
+        });
+        return factory.getProxy();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(CapturingDataSourcePostProcessor.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CapturingDataSourcePostProcessor.invoke(target, method, args);
+            if (result instanceof CallableStatement)
+                return proxy(CallableStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+            if (result instanceof PreparedStatement)
+                return proxy(PreparedStatement.class, new StatementHandler((Statement) result, (String) args[0]));
+            if (result instanceof Statement)
+                return proxy(Statement.class, new StatementHandler((Statement) result, null));
+            return result;
+        }
+    }
+
+    /*
+     * Records on execution rather than on prepare, so a statement prepared but never run is not counted.
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final List<String> batch = new ArrayList<>();
+
+        private StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            boolean withSql = args != null && args.length > 0 && args[0] instanceof String;
+            if (name.equals("addBatch")) {
+                batch.add(withSql ? (String) args[0] : preparedSql);
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                if (preparedSql != null && !batch.isEmpty()) capture.record(preparedSql);
+                else batch.forEach(capture::record);
+                batch.clear();
+            } else if (name.equals("clearBatch")) {
+                batch.clear();
+            } else if (name.startsWith("execute")) {
+                capture.record(withSql ? (String) args[0] : preparedSql);
+            }
+            return CapturingDataSourcePostProcessor.invoke(target, method, args);
+        }
+    }
+
+}
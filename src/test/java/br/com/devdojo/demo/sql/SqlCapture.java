@@ -0,0 +1,106 @@
+package br.com.devdojo.demo.sql;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/*
+ * Statements executed through the captured DataSource since the last clear(), from any thread, so requests
+ * served by the embedded server are captured too. Batches are captured once, as a single round trip.
+ *
+ * Failed assertions list every captured statement, marking the unexpected ones with + and the missing ones with -.
+ */
+public class SqlCapture {
+
+    public enum Type {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static Type of(String sql) {
+            String statement = sql.trim().toLowerCase(Locale.ROOT);
+            for (Type type : values()) {
+                if (statement.startsWith(type.name().toLowerCase(Locale.ROOT))) return type;
+            }
+            return OTHER;
+        }
+    }
+
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    void record(String sql) {
+        statements.add(sql);
+    }
+
+    public void clear() {
+        statements.clear();
+    }
+
+    public List<String> statements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    public List<String> statements(Type type) {
+        List<String> matching = new ArrayList<>();
+        for (String sql : statements()) {
+            if (Type.of(sql) == type) matching.add(sql);
+        }
+        return matching;
+    }
+
+    /*
+     * Exactly these statement types, in this order.
+     */
+    public void assertStatements(Type... expected) {
+        List<String> captured = statements();
+        List<Type> actual = new ArrayList<>();
+        for (String sql : captured) actual.add(Type.of(sql));
+        if (!actual.equals(Arrays.asList(expected)))
+            fail("Expected statements " + Arrays.toString(expected) + " but were " + actual, captured, Arrays.asList(expected));
+    }
+
+    public void assertNoStatements() {
+        assertStatements();
+    }
+
+    public void assertCount(Type type, int expected) {
+        int actual = statements(type).size();
+        if (actual != expected) fail("Expected " + expected + " " + type + " but were " + actual, statements(), null);
+    }
+
+    public void assertAtMost(Type type, int max) {
+        int actual = statements(type).size();
+        if (actual > max) fail("Expected at most " + max + " " + type + " but were " + actual, statements(), null);
+    }
+
+    /*
+     * assertStatements as a MockMvc ResultMatcher.
+     */
+    public ResultMatcher executed(Type... expected) {
+        return result -> assertStatements(expected);
+    }
+
+    private static void fail(String message, List<String> captured, List<Type> expected) {
+        StringBuilder diff = new StringBuilder(message).append(System.lineSeparator());
+        int rows = Math.max(captured.size(), expected == null ? 0 : expected.size());
+        for (int i = 0; i < rows; i++) {
+            Type want = expected != null && i < expected.size() ? expected.get(i) : null;
+            if (i < captured.size()) {
+                String sql = captured.get(i);
+                Type type = Type.of(sql);
+                boolean matches = expected == null || type == want;
+                diff.append(matches ? "  " : "+ ").append(i + 1).append(". [").append(type).append("] ")
+                        .append(sql.trim()).append(System.lineSeparator());
+            }
+            if (want != null && (i >= captured.size() || Type.of(captured.get(i)) != want))
+                diff.append("- ").append(i + 1).append(". [").append(want).append("]").append(System.lineSeparator());
+        }
+        if (captured.isEmpty()) diff.append("  (no statements captured)").append(System.lineSeparator());
+        throw new AssertionError(diff.toString());
+    }
+
+}
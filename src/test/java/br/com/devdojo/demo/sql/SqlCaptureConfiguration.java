@@ -0,0 +1,22 @@
+package br.com.devdojo.demo.sql;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/*
+ * @Import it into a test to capture the SQL of its DataSource, then @Autowire the SqlCapture.
+ */
+@TestConfiguration
+public class SqlCaptureConfiguration {
+
+    @Bean
+    public static CapturingDataSourcePostProcessor capturingDataSourcePostProcessor() {
+        return new CapturingDataSourcePostProcessor();
+    }
+
+    @Bean
+    public SqlCapture sqlCapture(CapturingDataSourcePostProcessor capturingDataSourcePostProcessor) {
+        return capturingDataSourcePostProcessor.getCapture();
+    }
+
+}